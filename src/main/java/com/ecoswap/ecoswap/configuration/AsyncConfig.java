@@ -0,0 +1,72 @@
+package com.ecoswap.ecoswap.configuration;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    @Value("${image.variants.workers}")
+    private int imageWorkers;
+
+    @Value("${image.variants.queue-capacity}")
+    private int imageQueueCapacity;
+
+    @Value("${notifications.dispatch.workers}")
+    private int notificationWorkers;
+
+    @Value("${notifications.dispatch.queue-capacity}")
+    private int notificationQueueCapacity;
+
+    @Bean(name = "imageProcessingExecutor")
+    public Executor imageProcessingExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(imageWorkers);
+        executor.setMaxPoolSize(imageWorkers);
+        executor.setQueueCapacity(imageQueueCapacity);
+        executor.setThreadNamePrefix("image-");
+        // Si la cola se llena se descarta la tarea: la variante se generará al pedirse por primera vez
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(name = "notificationExecutor")
+    public Executor notificationExecutor(MeterRegistry meterRegistry) {
+        Counter callerRuns = Counter.builder("notifications.dispatch.caller.runs")
+                .description("Notificaciones enviadas en el hilo que las publicó por tener la cola llena")
+                .register(meterRegistry);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(notificationWorkers);
+        executor.setMaxPoolSize(notificationWorkers);
+        executor.setQueueCapacity(notificationQueueCapacity);
+        executor.setThreadNamePrefix("notification-");
+        // Las notificaciones no se descartan: con la cola llena las envía quien las publica
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            callerRuns.increment();
+            if (!pool.isShutdown()) {
+                task.run();
+            }
+        });
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+
+        Gauge.builder("notifications.dispatch.queue.depth", executor,
+                        e -> e.getThreadPoolExecutor().getQueue().size())
+                .description("Notificaciones pendientes de envío")
+                .register(meterRegistry);
+        return executor;
+    }
+}
@@ -0,0 +1,31 @@
+package com.ecoswap.ecoswap.configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PRODUCT_CATALOG = "productCatalog";
+    public static final String PRODUCT_CATEGORY = "productCategory";
+    public static final String RECENT_PRODUCTS = "recentProducts";
+
+    @Value("${cache.catalog.spec}")
+    private String catalogCacheSpec;
+
+    @Bean
+    public CacheManager cacheManager() {
+        // Nombres fijos para que Actuator registre las métricas de aciertos/fallos de cada caché
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(
+                PRODUCT_CATALOG, PRODUCT_CATEGORY, RECENT_PRODUCTS);
+        cacheManager.setCacheSpecification(catalogCacheSpec);
+        // Las invalidaciones dentro de una transacción se aplican después del commit
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,78 @@
+package com.ecoswap.ecoswap.configuration;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+/**
+ * Filtro de Jackson para respuestas con campos a elección del cliente (?fields=id,status,productTo.title).
+ * Un campo incluye todo su contenido ("productTo") y una ruta anidada incluye a sus padres.
+ * Los DTO que lo admiten se anotan con @JsonFilter(FieldsetFilter.ID).
+ */
+public class FieldsetFilter extends SimpleBeanPropertyFilter {
+
+    public static final String ID = "fieldset";
+
+    private final Set<String> fields;
+
+    private FieldsetFilter(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Envuelve el cuerpo de la respuesta aplicando el parámetro fields; sin parámetro se serializa todo.
+     */
+    public static MappingJacksonValue apply(Object body, String fields) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(new SimpleFilterProvider().addFilter(ID, from(fields)));
+        return value;
+    }
+
+    private static SimpleBeanPropertyFilter from(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return SimpleBeanPropertyFilter.serializeAll();
+        }
+        return new FieldsetFilter(Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toSet()));
+    }
+
+    @Override
+    public void serializeAsField(Object pojo, JsonGenerator jgen, SerializerProvider provider,
+                                 PropertyWriter writer) throws Exception {
+        if (isRequested(pathOf(jgen.getOutputContext(), writer.getName()))) {
+            writer.serializeAsField(pojo, jgen, provider);
+        } else if (!jgen.canOmitFields()) {
+            writer.serializeAsOmittedField(pojo, jgen, provider);
+        }
+    }
+
+    private boolean isRequested(String path) {
+        for (String field : fields) {
+            if (field.equals(path) || field.startsWith(path + ".") || path.startsWith(field + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // El contexto actual es el objeto que se está escribiendo; sus ancestros aportan los nombres de la ruta
+    private String pathOf(JsonStreamContext context, String name) {
+        StringBuilder path = new StringBuilder(name);
+        for (JsonStreamContext parent = context.getParent(); parent != null; parent = parent.getParent()) {
+            if (parent.inObject() && parent.getCurrentName() != null) {
+                path.insert(0, parent.getCurrentName() + ".");
+            }
+        }
+        return path.toString();
+    }
+}
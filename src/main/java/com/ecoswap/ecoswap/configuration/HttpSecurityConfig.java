@@ -1,6 +1,7 @@
 package com.ecoswap.ecoswap.configuration;
 
 import com.ecoswap.ecoswap.configuration.filter.JwtAuthenticationFilter;
+import com.ecoswap.ecoswap.configuration.filter.RateLimitFilter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -24,6 +25,9 @@ public class HttpSecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         return http
@@ -56,6 +60,7 @@ public class HttpSecurityConfig {
                     authorize.requestMatchers(HttpMethod.GET, "/api/v1/product/category/{category}").permitAll();
 
                     authorize.requestMatchers(HttpMethod.POST, "/api/v1/product/create").permitAll();
+                    authorize.requestMatchers(HttpMethod.POST, "/api/v1/product/import").authenticated();
                     authorize.requestMatchers(HttpMethod.GET, "/api/v1/product/user").permitAll();
                     authorize.requestMatchers(HttpMethod.GET, "/api/v1/product/active/user/{userId}").permitAll();
                     authorize.requestMatchers(HttpMethod.GET, "/api/v1/product/{id}").permitAll();
@@ -63,6 +68,7 @@ public class HttpSecurityConfig {
                     authorize.requestMatchers(HttpMethod.GET, "/api/v1/product/{id}").permitAll();
                     authorize.requestMatchers(HttpMethod.GET, "api/v1/product/recent").permitAll();
                     authorize.requestMatchers(HttpMethod.GET, "api/v1/products/counts").permitAll();
+                    authorize.requestMatchers(HttpMethod.GET, "/api/v1/products/counts/status").permitAll();
 
                     authorize.requestMatchers(HttpMethod.GET, "api/v1/product/**").permitAll();
 
@@ -73,7 +79,11 @@ public class HttpSecurityConfig {
                     authorize.requestMatchers(HttpMethod.POST, "/api/v1/select-exchange").permitAll();
                     authorize.requestMatchers(HttpMethod.POST, "/api/v1/exchanges").permitAll();
                     authorize.requestMatchers(HttpMethod.GET, "/api/v1/exchanges/counts").permitAll();
+                    authorize.requestMatchers(HttpMethod.GET, "/api/v1/exchanges/counts/status").permitAll();
                     authorize.requestMatchers(HttpMethod.GET, "/api/v1/exchanges").permitAll();
+                    authorize.requestMatchers(HttpMethod.GET, "/api/v1/exchanges/page").permitAll();
+                    authorize.requestMatchers(HttpMethod.GET, "/api/v1/exchanges/stream").authenticated();
+                    authorize.requestMatchers(HttpMethod.GET, "/api/v1/exchanges/me").authenticated();
                     authorize.requestMatchers(HttpMethod.GET, "/api/v1/completed/user/{userId}").permitAll();
                     authorize.requestMatchers(HttpMethod.POST, "/api/v1/{exchangeId}/confirm").permitAll();
                     authorize.requestMatchers(HttpMethod.POST, "/api/v1/{exchangeId}/cancel").permitAll();
@@ -98,8 +108,13 @@ public class HttpSecurityConfig {
                     authorize.requestMatchers(HttpMethod.POST,"/ws/**", "/topic/**", "/app/**").permitAll();
 
                     authorize.requestMatchers(HttpMethod.GET, "/api/v1/chat/message/exchange/{receiverId}").permitAll();
-                    authorize.requestMatchers(HttpMethod.POST, "/api/v1/chat/message/create").permitAll();
+                    authorize.requestMatchers(HttpMethod.POST, "/api/v1/chat/message/create").authenticated();
                     authorize.requestMatchers(HttpMethod.GET, "/api/v1/chat/message").permitAll();
+                    authorize.requestMatchers(HttpMethod.GET, "/api/v1/chat/message/page").authenticated();
+                    authorize.requestMatchers(HttpMethod.GET, "/api/v1/chat/exchange/{exchangeId}/history").authenticated();
+                    authorize.requestMatchers(HttpMethod.GET, "/api/v1/chat/exchange/{exchangeId}/messages").authenticated();
+                    authorize.requestMatchers(HttpMethod.GET, "/api/v1/chat/conversations").authenticated();
+                    authorize.requestMatchers(HttpMethod.POST, "/api/v1/chat/conversations/{conversationId}/read").authenticated();
                     authorize.requestMatchers(HttpMethod.GET, "/message/exchange/{exchangeId}").permitAll();
 
 
@@ -132,6 +147,7 @@ public class HttpSecurityConfig {
                     authorize.anyRequest().denyAll();
                 })
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class)
                 .build();
     }
 }
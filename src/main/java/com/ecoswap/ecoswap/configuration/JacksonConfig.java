@@ -0,0 +1,18 @@
+package com.ecoswap.ecoswap.configuration;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer fieldsetFilterCustomizer() {
+        // Los DTO con @JsonFilter se serializan completos cuando la respuesta no define filtros
+        return builder -> builder.filters(new SimpleFilterProvider()
+                .addFilter(FieldsetFilter.ID, SimpleBeanPropertyFilter.serializeAll()));
+    }
+}
@@ -0,0 +1,34 @@
+package com.ecoswap.ecoswap.configuration;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * Cursor opaco de la paginación por clave: codifica en Base64 la posición del último elemento
+ * entregado, el valor de la columna de orden y el id como desempate ("valor|id").
+ */
+public record KeysetCursor<T>(T value, Long id) {
+
+    public static String encode(Object value, Long id) {
+        String position = value + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param parser convierte el valor de orden a su tipo (p. ej. LocalDate::parse)
+     * @throws IllegalArgumentException si el cursor no tiene el formato esperado
+     */
+    public static <T> KeysetCursor<T> decode(String cursor, Function<String, T> parser) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = position.split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            return new KeysetCursor<>(parser.apply(parts[0]), Long.valueOf(parts[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+    }
+}
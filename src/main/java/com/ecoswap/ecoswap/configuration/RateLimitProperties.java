@@ -0,0 +1,37 @@
+package com.ecoswap.ecoswap.configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Límites por ruta del RateLimitFilter (prefijo rate-limit en application.properties).
+ * Cada ruta admite ráfagas de hasta capacity peticiones y se recarga a refillPerMinute por minuto.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Máximo de buckets en memoria (usuario/IP por ruta); los inactivos se descartan
+    private long maxBuckets = 100_000;
+
+    private List<Route> routes = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Route {
+        // Método HTTP; vacío aplica a todos
+        private String method;
+        private String path;
+        private long capacity;
+        private long refillPerMinute;
+    }
+}
@@ -0,0 +1,22 @@
+package com.ecoswap.ecoswap.configuration;
+
+import java.security.Principal;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Usuario de una sesión STOMP. El nombre es el id del usuario para que
+ * convertAndSendToUser(id, ...) llegue a todas sus sesiones abiertas.
+ */
+@Getter
+@AllArgsConstructor
+public class StompPrincipal implements Principal {
+
+    private final Long userId;
+
+    @Override
+    public String getName() {
+        return String.valueOf(userId);
+    }
+}
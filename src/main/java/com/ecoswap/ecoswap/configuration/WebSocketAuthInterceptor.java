@@ -0,0 +1,98 @@
+package com.ecoswap.ecoswap.configuration;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.ecoswap.ecoswap.exchange.repositories.ExchangeParticipantRepository;
+import com.ecoswap.ecoswap.user.models.entities.User;
+import com.ecoswap.ecoswap.user.services.JwtService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+/**
+ * Autentica la sesión STOMP con el mismo Bearer token del API REST (cabecera Authorization del CONNECT)
+ * y restringe el chat: enviar mensajes requiere sesión y solo los participantes de un intercambio
+ * pueden suscribirse a su tópico de chat.
+ */
+@Component
+public class WebSocketAuthInterceptor implements ChannelInterceptor {
+
+    private static final Pattern EXCHANGE_CHAT_TOPIC = Pattern.compile("^/topic/exchange/(\\d+)/chat$");
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private ExchangeParticipantRepository exchangeParticipantRepository;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+
+        switch (accessor.getCommand()) {
+            case CONNECT -> authenticate(accessor);
+            case SEND -> {
+                if (accessor.getDestination() != null && accessor.getDestination().startsWith("/app/chat")) {
+                    requireUser(accessor);
+                }
+            }
+            case SUBSCRIBE -> authorizeSubscription(accessor);
+            default -> {
+            }
+        }
+        return message;
+    }
+
+    private void authenticate(StompHeaderAccessor accessor) {
+        String authHeader = accessor.getFirstNativeHeader("Authorization");
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            // Conexión anónima: sigue pudiendo recibir notificaciones públicas
+            return;
+        }
+        String jwt = authHeader.substring(7);
+        UserDetails userDetails = userDetailsService.loadUserByUsername(jwtService.extractUsername(jwt));
+        if (!jwtService.isTokenValid(jwt, userDetails)) {
+            throw new AccessDeniedException("Token inválido");
+        }
+        accessor.setUser(new StompPrincipal(((User) userDetails).getId()));
+    }
+
+    private void authorizeSubscription(StompHeaderAccessor accessor) {
+        String destination = accessor.getDestination();
+        if (destination == null) {
+            return;
+        }
+        Matcher matcher = EXCHANGE_CHAT_TOPIC.matcher(destination);
+        if (matcher.matches()) {
+            Long userId = requireUser(accessor);
+            Long exchangeId = Long.valueOf(matcher.group(1));
+            if (!exchangeParticipantRepository.existsByExchange_IdAndUserId(exchangeId, userId)) {
+                throw new AccessDeniedException("No participas en el intercambio " + exchangeId);
+            }
+        } else if (destination.startsWith("/user/queue/chat")) {
+            requireUser(accessor);
+        }
+    }
+
+    private Long requireUser(StompHeaderAccessor accessor) {
+        if (accessor.getUser() instanceof StompPrincipal principal) {
+            return principal.getUserId();
+        }
+        throw new AccessDeniedException("Se requiere autenticación para usar el chat");
+    }
+}
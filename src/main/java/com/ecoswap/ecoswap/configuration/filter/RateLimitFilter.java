@@ -0,0 +1,161 @@
+package com.ecoswap.ecoswap.configuration.filter;
+
+import com.ecoswap.ecoswap.configuration.RateLimitProperties;
+import com.ecoswap.ecoswap.exception.ErrorResponse;
+import com.ecoswap.ecoswap.user.models.entities.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limita las peticiones por usuario autenticado (o por IP si no hay sesión) en las rutas configuradas.
+ * Va después de JwtAuthenticationFilter para conocer al usuario.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final List<LimitedRoute> routes = new ArrayList<>();
+    private final Cache<String, TokenBucket> buckets;
+
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        for (RateLimitProperties.Route route : properties.getRoutes()) {
+            routes.add(new LimitedRoute(route));
+        }
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBuckets())
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || routes.isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        LimitedRoute route = findRoute(request);
+        if (route == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String client = clientKey(request);
+        TokenBucket bucket = buckets.get(route.pattern + ":" + client, key -> new TokenBucket(route.config));
+        long waitNanos = bucket.tryConsume();
+        if (waitNanos > 0) {
+            meterRegistry.counter("http.requests.throttled", "route", route.pattern).increment();
+            reject(response, waitNanos);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private LimitedRoute findRoute(HttpServletRequest request) {
+        for (LimitedRoute route : routes) {
+            if (route.matcher.matches(request)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof User user) {
+            return "user:" + user.getId();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    // Segundos enteros redondeados hacia arriba: un cliente que respeta Retry-After no vuelve antes de tiempo
+    static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = retryAfterSeconds(waitNanos);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(HttpStatus.TOO_MANY_REQUESTS.value(),
+                "Demasiadas peticiones, intenta de nuevo en " + retryAfterSeconds + " segundos", LocalDateTime.now()));
+    }
+
+    private static class LimitedRoute {
+        private final String pattern;
+        private final AntPathRequestMatcher matcher;
+        private final RateLimitProperties.Route config;
+
+        LimitedRoute(RateLimitProperties.Route config) {
+            String method = config.getMethod() == null || config.getMethod().isBlank() ? null : config.getMethod();
+            this.pattern = (method == null ? "" : method + " ") + config.getPath();
+            this.matcher = new AntPathRequestMatcher(config.getPath(), method);
+            this.config = config;
+        }
+    }
+
+    /**
+     * Token bucket sin bloqueos (GCRA): un único AtomicLong guarda el instante teórico en que el
+     * bucket vuelve a estar lleno y cada petición lo avanza con compareAndSet.
+     */
+    static class TokenBucket {
+        private final long emissionIntervalNanos;
+        private final long burstToleranceNanos;
+        private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+        TokenBucket(RateLimitProperties.Route config) {
+            this.emissionIntervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, config.getRefillPerMinute());
+            this.burstToleranceNanos = emissionIntervalNanos * Math.max(1, config.getCapacity());
+        }
+
+        /**
+         * @return 0 si la petición se admite, o los nanosegundos que faltan para que haya un token
+         */
+        long tryConsume() {
+            return tryConsume(System.nanoTime());
+        }
+
+        long tryConsume(long now) {
+            while (true) {
+                long current = theoreticalArrival.get();
+                long next = Math.max(current == Long.MIN_VALUE ? now : current, now) + emissionIntervalNanos;
+                long waitNanos = next - now - burstToleranceNanos;
+                if (waitNanos > 0) {
+                    return waitNanos;
+                }
+                if (theoreticalArrival.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
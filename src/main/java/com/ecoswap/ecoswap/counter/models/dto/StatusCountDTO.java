@@ -0,0 +1,9 @@
+package com.ecoswap.ecoswap.counter.models.dto;
+
+/**
+ * Proyección de las consultas GROUP BY status usadas para reconciliar los contadores.
+ */
+public interface StatusCountDTO {
+    String getStatus();
+    Long getTotal();
+}
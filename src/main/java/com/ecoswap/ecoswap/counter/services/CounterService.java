@@ -0,0 +1,18 @@
+package com.ecoswap.ecoswap.counter.services;
+
+import java.util.Map;
+
+public interface CounterService {
+    void recordProductStatusChange(String fromStatus, String toStatus, long count);
+    void recordExchangeStatusChange(String fromStatus, String toStatus, long count);
+    void recordUserCreated();
+    void recordUserDeleted();
+
+    long getTotalProducts();
+    Map<String, Long> getProductsByStatus();
+    long getTotalExchanges();
+    Map<String, Long> getExchangesByStatus();
+    long getTotalUsers();
+
+    void reconcile();
+}
@@ -0,0 +1,163 @@
+package com.ecoswap.ecoswap.counter.services.impl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.ecoswap.ecoswap.counter.models.dto.StatusCountDTO;
+import com.ecoswap.ecoswap.counter.services.CounterService;
+import com.ecoswap.ecoswap.exchange.repositories.ExchangeRepository;
+import com.ecoswap.ecoswap.product.repositories.ProductRepository;
+import com.ecoswap.ecoswap.user.repositories.UserRepository;
+
+/**
+ * Totales de productos, intercambios y usuarios mantenidos en memoria.
+ * Se actualizan en cada escritura, al confirmarse la transacción que la hace, y se reconcilian
+ * periódicamente contra la base de datos, así los endpoints de conteo responden sin lanzar COUNT(*).
+ */
+@Service
+public class CounterServiceImpl implements CounterService {
+
+    private final ConcurrentMap<String, LongAdder> productsByStatus = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> exchangesByStatus = new ConcurrentHashMap<>();
+    private final LongAdder users = new LongAdder();
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ExchangeRepository exchangeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Override
+    public void recordProductStatusChange(String fromStatus, String toStatus, long count) {
+        afterCommit(() -> move(productsByStatus, fromStatus, toStatus, count));
+    }
+
+    @Override
+    public void recordExchangeStatusChange(String fromStatus, String toStatus, long count) {
+        afterCommit(() -> move(exchangesByStatus, fromStatus, toStatus, count));
+    }
+
+    @Override
+    public void recordUserCreated() {
+        afterCommit(users::increment);
+    }
+
+    @Override
+    public void recordUserDeleted() {
+        afterCommit(users::decrement);
+    }
+
+    @Override
+    public long getTotalProducts() {
+        return sum(productsByStatus);
+    }
+
+    @Override
+    public Map<String, Long> getProductsByStatus() {
+        return snapshot(productsByStatus);
+    }
+
+    @Override
+    public long getTotalExchanges() {
+        return sum(exchangesByStatus);
+    }
+
+    @Override
+    public Map<String, Long> getExchangesByStatus() {
+        return snapshot(exchangesByStatus);
+    }
+
+    @Override
+    public long getTotalUsers() {
+        return users.sum();
+    }
+
+    /**
+     * Las escrituras que ocurran mientras se ejecuta la reconciliación pueden quedar
+     * desfasadas hasta la siguiente pasada.
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${counters.reconciliation.interval-ms:600000}",
+            initialDelayString = "${counters.reconciliation.interval-ms:600000}")
+    public void reconcile() {
+        reset(productsByStatus, productRepository.countGroupByProductStatus());
+        reset(exchangesByStatus, exchangeRepository.countGroupByStatus());
+
+        long totalUsers = userRepository.count();
+        users.add(totalUsers - users.sum());
+    }
+
+    // Una transacción revertida (o reintentada) no debe dejar sus cambios en los contadores
+    private void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    private void move(ConcurrentMap<String, LongAdder> counters, String fromStatus, String toStatus, long count) {
+        if (count <= 0 || (fromStatus != null && fromStatus.equals(toStatus))) {
+            return;
+        }
+        if (fromStatus != null) {
+            counters.computeIfAbsent(fromStatus, status -> new LongAdder()).add(-count);
+        }
+        if (toStatus != null) {
+            counters.computeIfAbsent(toStatus, status -> new LongAdder()).add(count);
+        }
+    }
+
+    private void reset(ConcurrentMap<String, LongAdder> counters, List<StatusCountDTO> totals) {
+        Map<String, Long> actual = new TreeMap<>();
+        for (StatusCountDTO total : totals) {
+            if (total.getStatus() != null) {
+                actual.put(total.getStatus(), total.getTotal());
+            }
+        }
+        counters.forEach((status, adder) -> {
+            if (!actual.containsKey(status)) {
+                adder.add(-adder.sum());
+            }
+        });
+        actual.forEach((status, total) -> {
+            LongAdder adder = counters.computeIfAbsent(status, key -> new LongAdder());
+            adder.add(total - adder.sum());
+        });
+    }
+
+    private long sum(ConcurrentMap<String, LongAdder> counters) {
+        long total = 0;
+        for (LongAdder adder : counters.values()) {
+            total += adder.sum();
+        }
+        return total;
+    }
+
+    private Map<String, Long> snapshot(ConcurrentMap<String, LongAdder> counters) {
+        Map<String, Long> result = new TreeMap<>();
+        counters.forEach((status, adder) -> result.put(status, adder.sum()));
+        return result;
+    }
+}
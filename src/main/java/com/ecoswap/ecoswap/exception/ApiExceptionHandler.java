@@ -0,0 +1,54 @@
+package com.ecoswap.ecoswap.exception;
+
+import com.ecoswap.ecoswap.exchange.exceptions.ExchangeStateException;
+import com.ecoswap.ecoswap.idempotency.exceptions.ResultPendingException;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.time.LocalDateTime;
+
+/**
+ * Errores con un código HTTP propio. Se consulta antes que los manejadores genéricos
+ * de RuntimeException y Exception, que los responderían como 403 o 500.
+ */
+@RestControllerAdvice
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ApiExceptionHandler {
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponse> handleIllegalArgument(IllegalArgumentException ex) {
+        return error(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<ErrorResponse> handleAccessDenied(AccessDeniedException ex) {
+        return error(HttpStatus.FORBIDDEN, ex.getMessage());
+    }
+
+    @ExceptionHandler(ExchangeStateException.class)
+    public ResponseEntity<ErrorResponse> handleExchangeState(ExchangeStateException ex) {
+        return error(HttpStatus.CONFLICT, ex.getMessage());
+    }
+
+    // Conflicto de versión o bloqueo que siguió perdiendo tras agotar los reintentos
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<ErrorResponse> handleConcurrencyFailure(ConcurrencyFailureException ex) {
+        return error(HttpStatus.CONFLICT, "El recurso fue modificado por otra petición, vuelve a intentarlo");
+    }
+
+    // La acción se aceptó y terminará en segundo plano; el cliente no debe repetirla
+    @ExceptionHandler(ResultPendingException.class)
+    public ResponseEntity<ErrorResponse> handleResultPending(ResultPendingException ex) {
+        return error(HttpStatus.ACCEPTED, ex.getMessage());
+    }
+
+    private ResponseEntity<ErrorResponse> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status).body(new ErrorResponse(status.value(), message, LocalDateTime.now()));
+    }
+}
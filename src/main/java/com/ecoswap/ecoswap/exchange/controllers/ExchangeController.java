@@ -1,34 +1,51 @@
 package com.ecoswap.ecoswap.exchange.controllers;
 
+import com.ecoswap.ecoswap.configuration.FieldsetFilter;
 import com.ecoswap.ecoswap.exchange.models.dto.CreateExchangeRequestDTO;
 import com.ecoswap.ecoswap.exchange.models.dto.ExchangeDTO;
+import com.ecoswap.ecoswap.exchange.models.dto.ExchangePageDTO;
 import com.ecoswap.ecoswap.exchange.services.ExchangeService;
+import com.ecoswap.ecoswap.idempotency.services.IdempotencyService;
 import com.ecoswap.ecoswap.product.models.dto.ProductDTO;
 import com.ecoswap.ecoswap.user.models.entities.User;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1")
 public class ExchangeController {
 
+    private static final String TRUNCATED_HEADER = "X-Truncated";
+
     @Autowired
     private ExchangeService exchangeService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     @PostMapping("/create-exchange")
     public ResponseEntity<ExchangeDTO> createRequestExchange(@RequestBody ExchangeDTO exchangeDTO){
         return ResponseEntity.status(HttpStatus.CREATED).body(exchangeService.createRequestExchange(exchangeDTO));
     }
 
     @PostMapping("/create-exchange-existing-product")
-    public ResponseEntity<ExchangeDTO> createRequestExchangeWithExistingProduct(@RequestBody CreateExchangeRequestDTO request){
-        return ResponseEntity.status(HttpStatus.CREATED).body(exchangeService.createRequestExchangeWithExistingProduct(request));
+    public ResponseEntity<?> createRequestExchangeWithExistingProduct(@RequestBody CreateExchangeRequestDTO request,
+                                                                      @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey){
+        // Un reintento con la misma clave devuelve el intercambio ya creado en lugar de duplicarlo
+        return idempotencyService.execute("create-exchange-existing-product", idempotencyKey, request, () ->
+                ResponseEntity.status(HttpStatus.CREATED).body(exchangeService.createRequestExchangeWithExistingProduct(request)));
     }
 
     @PostMapping("/select-exchange")
@@ -37,8 +54,9 @@ public class ExchangeController {
     }
 
     @PostMapping("/exchanges")
-    public ResponseEntity<List<ExchangeDTO>> getExchangeByProductTo(@RequestBody ProductDTO productDTO){
-        return ResponseEntity.ok(exchangeService.findByProductTo(productDTO));
+    public ResponseEntity<MappingJacksonValue> getExchangeByProductTo(@RequestBody ProductDTO productDTO,
+                                                                      @RequestParam(required = false) String fields){
+        return ResponseEntity.ok(FieldsetFilter.apply(exchangeService.findByProductTo(productDTO), fields));
     }
 
     @GetMapping("/exchanges/counts")
@@ -46,15 +64,69 @@ public class ExchangeController {
         return ResponseEntity.ok(exchangeService.countExchanges());
     }
 
+    @GetMapping("/exchanges/counts/status")
+    public ResponseEntity<Map<String, Long>> countExchangesByStatus(){
+        return ResponseEntity.ok(exchangeService.countExchangesByStatus());
+    }
+
     @GetMapping("/exchanges")
-    public ResponseEntity<List<ExchangeDTO>> getAllExchanges(){
-        return ResponseEntity.ok(exchangeService.getAllExchange());
+    public ResponseEntity<MappingJacksonValue> getAllExchanges(@RequestParam(required = false) String fields){
+        ExchangePageDTO page = exchangeService.getAllExchange();
+        ResponseEntity.BodyBuilder response = truncated(page);
+        if (page.getNextCursor() != null) {
+            response.header(HttpHeaders.LINK, "</api/v1/exchanges/page?cursor=" + page.getNextCursor() + ">; rel=\"next\"");
+        }
+        return response.body(FieldsetFilter.apply(page.getExchanges(), fields));
+    }
+
+    @GetMapping("/exchanges/page")
+    public ResponseEntity<ExchangePageDTO> getExchangesPage(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size){
+        return ResponseEntity.ok(exchangeService.getExchangesPage(status, from, to, cursor, size));
+    }
+
+    // Un intercambio JSON por línea (NDJSON), escrito a medida que se lee de la base de datos
+    @GetMapping("/exchanges/stream")
+    public ResponseEntity<StreamingResponseBody> streamExchanges(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to){
+        StreamingResponseBody body = out -> exchangeService.streamExchanges(status, from, to, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    // Bandeja de intercambios del usuario autenticado
+    @GetMapping("/exchanges/me")
+    public ResponseEntity<ExchangePageDTO> getMyExchanges(@RequestParam(required = false) String status,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(required = false) Integer size){
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        User userDetails = (User) authentication.getPrincipal();
+        Long userId = userDetails.getId();
+
+        return ResponseEntity.ok(exchangeService.getExchangesByUser(userId, status, cursor, size));
     }
 
     @GetMapping("/completed/user/{userId}")
-    public ResponseEntity<List<ExchangeDTO>> getCompletedExchangesByUser(@PathVariable Long userId) {
-        List<ExchangeDTO> completedExchanges = exchangeService.getCompletedExchangesByUserId(userId);
-        return ResponseEntity.ok(completedExchanges);
+    public ResponseEntity<MappingJacksonValue> getCompletedExchangesByUser(@PathVariable Long userId,
+                                                                           @RequestParam(required = false) String fields) {
+        ExchangePageDTO completedExchanges = exchangeService.getCompletedExchangesByUserId(userId);
+        return truncated(completedExchanges).body(FieldsetFilter.apply(completedExchanges.getExchanges(), fields));
+    }
+
+    // Las listas sin paginar conservan su forma de array; si se cortaron se avisa con X-Truncated
+    private ResponseEntity.BodyBuilder truncated(ExchangePageDTO page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(TRUNCATED_HEADER, "true");
+        }
+        return response;
     }
 
     @PostMapping("/{exchangeId}/confirm")
@@ -0,0 +1,15 @@
+package com.ecoswap.ecoswap.exchange.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Se publica dentro de la transacción en la que un intercambio pasa a "completado".
+ */
+@Getter
+@AllArgsConstructor
+public class ExchangeCompletedEvent {
+    private Long exchangeId;
+    private Long productFromId;
+    private Long productToId;
+}
@@ -0,0 +1,8 @@
+package com.ecoswap.ecoswap.exchange.exceptions;
+
+public class ExchangeStateException extends RuntimeException{
+
+    public ExchangeStateException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,47 @@
+package com.ecoswap.ecoswap.exchange.models;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import lombok.Getter;
+
+/**
+ * Ciclo de vida de un intercambio:
+ * pendiente → aceptada | rechazada | cancelado, aceptada → completado | cancelado.
+ * completado, cancelado y rechazada son estados finales.
+ */
+@Getter
+public enum ExchangeStatus {
+    PENDIENTE("pendiente"),
+    ACEPTADA("aceptada"),
+    COMPLETADO("completado"),
+    CANCELADO("cancelado"),
+    RECHAZADA("rechazada");
+
+    private final String value;
+
+    ExchangeStatus(String value) {
+        this.value = value;
+    }
+
+    public Set<ExchangeStatus> getNextStatuses() {
+        return switch (this) {
+            case PENDIENTE -> EnumSet.of(ACEPTADA, RECHAZADA, CANCELADO);
+            case ACEPTADA -> EnumSet.of(COMPLETADO, CANCELADO);
+            default -> EnumSet.noneOf(ExchangeStatus.class);
+        };
+    }
+
+    public boolean canTransitionTo(ExchangeStatus next) {
+        return getNextStatuses().contains(next);
+    }
+
+    public static ExchangeStatus fromValue(String value) {
+        for (ExchangeStatus status : values()) {
+            if (status.value.equals(value)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Estado de intercambio desconocido: " + value);
+    }
+}
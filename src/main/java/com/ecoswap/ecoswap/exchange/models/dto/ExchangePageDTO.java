@@ -0,0 +1,18 @@
+package com.ecoswap.ecoswap.exchange.models.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ExchangePageDTO {
+    private List<ExchangeSummaryDTO> exchanges;
+    // Token opaco para pedir la siguiente página, null si no hay más
+    private String nextCursor;
+}
@@ -0,0 +1,22 @@
+package com.ecoswap.ecoswap.exchange.models.dto;
+
+import com.ecoswap.ecoswap.configuration.FieldsetFilter;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Producto dentro de un intercambio: solo lo que muestran las tarjetas del cliente.
+ */
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonFilter(FieldsetFilter.ID)
+public class ExchangeProductDTO {
+    private Long id;
+    private String title;
+    private String thumbnailImage;
+    private Long ownerId;
+    private String ownerName;
+}
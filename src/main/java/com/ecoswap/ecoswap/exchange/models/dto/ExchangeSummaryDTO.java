@@ -0,0 +1,45 @@
+package com.ecoswap.ecoswap.exchange.models.dto;
+
+import java.time.LocalDateTime;
+
+import com.ecoswap.ecoswap.configuration.FieldsetFilter;
+import com.ecoswap.ecoswap.product.models.ImageVariant;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Vista compacta de un intercambio. Se construye directamente en la consulta JPQL,
+ * sin hidratar las entidades Product ni User (ni su contraseña ni sus permisos).
+ */
+@Getter
+@NoArgsConstructor
+@JsonFilter(FieldsetFilter.ID)
+public class ExchangeSummaryDTO {
+    private Long id;
+    private String status;
+    private LocalDateTime exchangeRequestedAt;
+    private LocalDateTime exchangeRespondedAt;
+    private ExchangeProductDTO productFrom;
+    private ExchangeProductDTO productTo;
+
+    public ExchangeSummaryDTO(Long id, String status, LocalDateTime exchangeRequestedAt, LocalDateTime exchangeRespondedAt,
+                              Long productFromId, String productFromTitle, String productFromImage,
+                              Long productFromOwnerId, String productFromOwnerName,
+                              Long productToId, String productToTitle, String productToImage,
+                              Long productToOwnerId, String productToOwnerName) {
+        this.id = id;
+        this.status = status;
+        this.exchangeRequestedAt = exchangeRequestedAt;
+        this.exchangeRespondedAt = exchangeRespondedAt;
+        this.productFrom = product(productFromId, productFromTitle, productFromImage, productFromOwnerId, productFromOwnerName);
+        this.productTo = product(productToId, productToTitle, productToImage, productToOwnerId, productToOwnerName);
+    }
+
+    private static ExchangeProductDTO product(Long id, String title, String image, Long ownerId, String ownerName) {
+        if (id == null) {
+            return null;
+        }
+        return new ExchangeProductDTO(id, title, ImageVariant.THUMBNAIL.urlFor(image), ownerId, ownerName);
+    }
+}
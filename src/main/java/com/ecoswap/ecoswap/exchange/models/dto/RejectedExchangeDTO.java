@@ -0,0 +1,11 @@
+package com.ecoswap.ecoswap.exchange.models.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class RejectedExchangeDTO {
+    private Long exchangeId;
+    private Long requesterId;
+}
@@ -15,6 +15,11 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_exchange_product_to_status", columnList = "id_product_to, status"),
+        @Index(name = "idx_exchange_requested", columnList = "exchange_requested_at, id"),
+        @Index(name = "idx_exchange_status_requested", columnList = "status, exchange_requested_at, id")
+})
 public class Exchange {
 
     @Id
@@ -43,4 +48,10 @@ public class Exchange {
 
     @Column
     private LocalDateTime exchangeRespondedAt;
+
+    @Column
+    private LocalDateTime completedAt;
+
+    @Version
+    private Long version;
 }
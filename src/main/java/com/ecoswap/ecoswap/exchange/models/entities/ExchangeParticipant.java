@@ -0,0 +1,44 @@
+package com.ecoswap.ecoswap.exchange.models.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Una fila por usuario involucrado en un intercambio (dueño del producto ofrecido y del solicitado).
+ * Copia el estado y la fecha del intercambio para que "mis intercambios" se resuelva
+ * con un recorrido de índice por usuario, sin OR entre los JOIN de productos.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_exchange_participant", columnNames = {"exchange_id", "user_id"}),
+        indexes = {
+                @Index(name = "idx_participant_user_status_requested", columnList = "user_id, status, requested_at, exchange_id"),
+                @Index(name = "idx_participant_user_requested", columnList = "user_id, requested_at, exchange_id")
+        })
+public class ExchangeParticipant {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "exchange_id", nullable = false)
+    private Exchange exchange;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, length = 15)
+    private String status;
+
+    @Column(name = "requested_at")
+    private LocalDateTime requestedAt;
+}
@@ -0,0 +1,44 @@
+package com.ecoswap.ecoswap.exchange.repositories;
+
+import com.ecoswap.ecoswap.exchange.models.dto.ExchangeSummaryDTO;
+import com.ecoswap.ecoswap.exchange.models.entities.ExchangeParticipant;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ExchangeParticipantRepository extends JpaRepository<ExchangeParticipant, Long> {
+
+    String PARTICIPANT_SUMMARY_SELECT = ExchangeRepository.EXCHANGE_SUMMARY_COLUMNS +
+            "FROM ExchangeParticipant ep JOIN ep.exchange e LEFT JOIN e.productFrom pf LEFT JOIN pf.user uf " +
+            "LEFT JOIN e.productTo pt LEFT JOIN pt.user ut " +
+            "WHERE ep.userId = :userId AND (:status IS NULL OR ep.status = :status) ";
+
+    String PARTICIPANT_KEYSET_ORDER = "ORDER BY ep.requestedAt DESC, ep.exchange.id DESC";
+
+    boolean existsByExchange_IdAndUserId(Long exchangeId, Long userId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ExchangeParticipant ep SET ep.status = :status WHERE ep.exchange.id IN :exchangeIds")
+    int updateStatus(@Param("exchangeIds") List<Long> exchangeIds, @Param("status") String status);
+
+    @Query(PARTICIPANT_SUMMARY_SELECT + PARTICIPANT_KEYSET_ORDER)
+    List<ExchangeSummaryDTO> findSummariesByUserId(@Param("userId") Long userId,
+                                                   @Param("status") String status,
+                                                   Pageable pageable);
+
+    @Query(PARTICIPANT_SUMMARY_SELECT +
+            "AND (ep.requestedAt < :requestedAt OR (ep.requestedAt = :requestedAt AND ep.exchange.id < :id)) " +
+            PARTICIPANT_KEYSET_ORDER)
+    List<ExchangeSummaryDTO> findSummariesByUserIdAfterCursor(@Param("userId") Long userId,
+                                                              @Param("status") String status,
+                                                              @Param("requestedAt") LocalDateTime requestedAt,
+                                                              @Param("id") Long id,
+                                                              Pageable pageable);
+}
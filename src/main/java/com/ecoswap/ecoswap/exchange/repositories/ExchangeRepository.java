@@ -1,21 +1,54 @@
 package com.ecoswap.ecoswap.exchange.repositories;
 
+import com.ecoswap.ecoswap.counter.models.dto.StatusCountDTO;
 import com.ecoswap.ecoswap.exchange.models.dto.ExchangeDTO;
+import com.ecoswap.ecoswap.exchange.models.dto.ExchangeSummaryDTO;
+import com.ecoswap.ecoswap.exchange.models.dto.RejectedExchangeDTO;
 import com.ecoswap.ecoswap.exchange.models.entities.Exchange;
 import com.ecoswap.ecoswap.product.models.dto.ProductDTO;
 import com.ecoswap.ecoswap.product.models.entities.Product;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ExchangeRepository extends JpaRepository<Exchange, Long> {
+
+    // Proyección compacta: intercambio, productos y propietarios en una sola consulta
+    String EXCHANGE_SUMMARY_COLUMNS = "SELECT new com.ecoswap.ecoswap.exchange.models.dto.ExchangeSummaryDTO(" +
+            "e.id, e.status, e.exchangeRequestedAt, e.exchangeRespondedAt, " +
+            "pf.id, pf.title, pf.imageProduct, uf.id, uf.name, " +
+            "pt.id, pt.title, pt.imageProduct, ut.id, ut.name) ";
+
+    String EXCHANGE_SUMMARY_SELECT = EXCHANGE_SUMMARY_COLUMNS +
+            "FROM Exchange e LEFT JOIN e.productFrom pf LEFT JOIN pf.user uf " +
+            "LEFT JOIN e.productTo pt LEFT JOIN pt.user ut ";
+
+    // Filtros opcionales: con el parámetro nulo la condición se descarta al preparar la consulta
+    String EXCHANGE_FILTER = "WHERE (:status IS NULL OR e.status = :status) " +
+            "AND (:from IS NULL OR e.exchangeRequestedAt >= :from) " +
+            "AND (:to IS NULL OR e.exchangeRequestedAt < :to) ";
+
+    String EXCHANGE_KEYSET_ORDER = "ORDER BY e.exchangeRequestedAt DESC, e.id DESC";
+
     List<Exchange> findByProductTo(Product product);
     List<Exchange> findByStatus(String status);
 
+    @Query("SELECT e.status AS status, COUNT(e) AS total FROM Exchange e GROUP BY e.status")
+    List<StatusCountDTO> countGroupByStatus();
+
     @Query("SELECT COUNT(e) FROM Exchange e WHERE e.productTo.id = :productId")
     int countInteractions(@Param("productId") Long productId);
 
@@ -24,11 +57,72 @@ public interface ExchangeRepository extends JpaRepository<Exchange, Long> {
 
     Long countByProductTo(Product productTo);
 
+    // Transiciones condicionales: solo una de dos peticiones concurrentes encuentra la fila en el estado de origen
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Exchange e SET e.status = :status, e.exchangeRespondedAt = :respondedAt, e.version = e.version + 1 " +
+            "WHERE e.id = :id AND e.status = :fromStatus")
+    int transition(@Param("id") Long id,
+                   @Param("fromStatus") String fromStatus,
+                   @Param("status") String status,
+                   @Param("respondedAt") LocalDateTime respondedAt);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Exchange e SET e.productFromConfirmed = true, e.version = e.version + 1 " +
+            "WHERE e.id = :id AND e.status = :status")
+    int confirmProductFrom(@Param("id") Long id, @Param("status") String status);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Exchange e SET e.productToConfirmed = true, e.version = e.version + 1 " +
+            "WHERE e.id = :id AND e.status = :status")
+    int confirmProductTo(@Param("id") Long id, @Param("status") String status);
+
+    // Las demás solicitudes pendientes del producto, bloqueadas hasta el fin de la transacción
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new com.ecoswap.ecoswap.exchange.models.dto.RejectedExchangeDTO(e.id, pf.user.id) " +
+            "FROM Exchange e JOIN e.productFrom pf " +
+            "WHERE e.productTo.id = :productToId AND e.status = 'pendiente' AND e.id <> :acceptedId")
+    List<RejectedExchangeDTO> findCompetingRequests(@Param("productToId") Long productToId,
+                                                    @Param("acceptedId") Long acceptedId);
+
+    // Rechaza en un solo UPDATE las solicitudes leídas por findCompetingRequests
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Exchange e SET e.status = 'rechazada', e.exchangeRespondedAt = :respondedAt, e.version = e.version + 1 " +
+            "WHERE e.id IN :ids AND e.status = 'pendiente'")
+    int rejectRequests(@Param("ids") List<Long> ids, @Param("respondedAt") LocalDateTime respondedAt);
+
+    // Solo la confirmación que encuentra ambas marcas completa el intercambio (devuelve 1)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Exchange e SET e.status = 'completado', e.completedAt = :completedAt, e.version = e.version + 1 " +
+            "WHERE e.id = :id AND e.status = 'aceptada' AND e.productFromConfirmed = true AND e.productToConfirmed = true")
+    int completeIfConfirmed(@Param("id") Long id, @Param("completedAt") LocalDateTime completedAt);
+
     @Query("SELECT COUNT(e) FROM Exchange e WHERE e.productTo.user.id = :userId AND e.status = 'completado'")
     Long countByProductTo_User(@Param("userId") Long userId);
 
-    @Query("SELECT e FROM Exchange e " +
-            "WHERE e.productTo.user.id = :userId OR e.productFrom.user.id = :userId AND e.status = 'pendiente'")
-    List<Exchange> findByProductToUserId(@Param("userId") Long userId);
+    @Query(EXCHANGE_SUMMARY_SELECT + EXCHANGE_FILTER + EXCHANGE_KEYSET_ORDER)
+    List<ExchangeSummaryDTO> findSummaries(@Param("status") String status,
+                                           @Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to,
+                                           Pageable pageable);
+
+    @Query(EXCHANGE_SUMMARY_SELECT + EXCHANGE_FILTER +
+            "AND (e.exchangeRequestedAt < :requestedAt OR (e.exchangeRequestedAt = :requestedAt AND e.id < :id)) " +
+            EXCHANGE_KEYSET_ORDER)
+    List<ExchangeSummaryDTO> findSummariesAfterCursor(@Param("status") String status,
+                                                      @Param("from") LocalDateTime from,
+                                                      @Param("to") LocalDateTime to,
+                                                      @Param("requestedAt") LocalDateTime requestedAt,
+                                                      @Param("id") Long id,
+                                                      Pageable pageable);
+
+    // Integer.MIN_VALUE hace que el driver de MySQL entregue las filas una a una en lugar de cargar todo el resultado
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query(EXCHANGE_SUMMARY_SELECT + EXCHANGE_FILTER + EXCHANGE_KEYSET_ORDER)
+    Stream<ExchangeSummaryDTO> streamSummaries(@Param("status") String status,
+                                               @Param("from") LocalDateTime from,
+                                               @Param("to") LocalDateTime to);
+
+    @Query(EXCHANGE_SUMMARY_SELECT + "WHERE pt.id = :productId")
+    List<ExchangeSummaryDTO> findSummariesByProductToId(@Param("productId") Long productId);
 
 }
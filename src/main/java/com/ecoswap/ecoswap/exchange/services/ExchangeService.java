@@ -2,19 +2,29 @@ package com.ecoswap.ecoswap.exchange.services;
 
 import com.ecoswap.ecoswap.exchange.models.dto.CreateExchangeRequestDTO;
 import com.ecoswap.ecoswap.exchange.models.dto.ExchangeDTO;
+import com.ecoswap.ecoswap.exchange.models.dto.ExchangePageDTO;
+import com.ecoswap.ecoswap.exchange.models.dto.ExchangeSummaryDTO;
 import com.ecoswap.ecoswap.product.models.dto.ProductDTO;
 import com.ecoswap.ecoswap.user.models.dto.UserDTO;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 public interface ExchangeService {
     ExchangeDTO createRequestExchange(ExchangeDTO requestExchange);
     ExchangeDTO createRequestExchangeWithExistingProduct(CreateExchangeRequestDTO request);
     ExchangeDTO selectExchangeRequest(ExchangeDTO requestExchange);
-    List<ExchangeDTO> findByProductTo(ProductDTO productDTO);
+    List<ExchangeSummaryDTO> findByProductTo(ProductDTO productDTO);
     Long countExchanges();
-    List<ExchangeDTO> getAllExchange();
-    List<ExchangeDTO> getCompletedExchangesByUserId(Long userId);
+    Map<String, Long> countExchangesByStatus();
+    ExchangePageDTO getAllExchange();
+    ExchangePageDTO getExchangesPage(String status, LocalDateTime from, LocalDateTime to, String cursor, Integer size);
+    void streamExchanges(String status, LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException;
+    ExchangePageDTO getCompletedExchangesByUserId(Long userId);
+    ExchangePageDTO getExchangesByUser(Long userId, String status, String cursor, Integer size);
     ExchangeDTO confirmReceived(Long exchangeId, Long userId);
     ExchangeDTO cancelExchange(Long exchangeId, Long userId);
 }
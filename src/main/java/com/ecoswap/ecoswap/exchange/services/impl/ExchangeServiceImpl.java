@@ -1,27 +1,52 @@
 package com.ecoswap.ecoswap.exchange.services.impl;
 
+import com.ecoswap.ecoswap.configuration.KeysetCursor;
+import com.ecoswap.ecoswap.counter.services.CounterService;
+import com.ecoswap.ecoswap.exchange.events.ExchangeCompletedEvent;
 import com.ecoswap.ecoswap.exchange.exceptions.ExchangeNotFoundException;
+import com.ecoswap.ecoswap.exchange.exceptions.ExchangeStateException;
+import com.ecoswap.ecoswap.exchange.models.ExchangeStatus;
 import com.ecoswap.ecoswap.exchange.models.dto.CreateExchangeRequestDTO;
 import com.ecoswap.ecoswap.exchange.models.dto.ExchangeDTO;
+import com.ecoswap.ecoswap.exchange.models.dto.ExchangePageDTO;
+import com.ecoswap.ecoswap.exchange.models.dto.ExchangeSummaryDTO;
+import com.ecoswap.ecoswap.exchange.models.dto.RejectedExchangeDTO;
 import com.ecoswap.ecoswap.exchange.models.entities.Exchange;
+import com.ecoswap.ecoswap.exchange.models.entities.ExchangeParticipant;
+import com.ecoswap.ecoswap.exchange.repositories.ExchangeParticipantRepository;
 import com.ecoswap.ecoswap.exchange.repositories.ExchangeRepository;
 import com.ecoswap.ecoswap.exchange.services.ExchangeService;
-import com.ecoswap.ecoswap.notification.services.NotificationService;
+import com.ecoswap.ecoswap.notification.events.NotificationsRequestedEvent;
 import com.ecoswap.ecoswap.prediction.services.WekaPredictionService;
 import com.ecoswap.ecoswap.product.models.dto.ProductDTO;
 import com.ecoswap.ecoswap.product.models.entities.Product;
 import com.ecoswap.ecoswap.product.repositories.ProductRepository;
 import com.ecoswap.ecoswap.user.models.dto.UserDTO;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.sql.Array;
+import java.util.Iterator;
+import java.util.stream.Stream;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,21 +55,41 @@ public class ExchangeServiceImpl implements ExchangeService {
     @Autowired
     private ExchangeRepository exchangeRepository;
 
+    @Autowired
+    private ExchangeParticipantRepository exchangeParticipantRepository;
+
     @Autowired
     private ProductRepository productRepository;
 
     @Autowired
-    private NotificationService notificationService;
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CounterService counterService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
 
     @Autowired
     private final WekaPredictionService wekaPredictionService;
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    // El listado sin paginar queda acotado; para recorrer el histórico están /exchanges/page y /exchanges/stream
+    private static final int MAX_LEGACY_EXCHANGES = 500;
+    private static final int STREAM_FLUSH_ROWS = 100;
+    private static final int MAX_TRANSITION_ATTEMPTS = 3;
+
     @Autowired
     public ExchangeServiceImpl(WekaPredictionService wekaPredictionService) {
         this.wekaPredictionService = wekaPredictionService;
     }
 
     @Override
+    @Transactional
     public ExchangeDTO createRequestExchange(ExchangeDTO requestExchange) {
 
         Exchange exchange = new Exchange();
@@ -55,18 +100,16 @@ public class ExchangeServiceImpl implements ExchangeService {
         exchange.setProductFrom(requestExchange.getProductFrom());
 
         exchangeRepository.save(exchange);
+        counterService.recordExchangeStatusChange(null, "pendiente", 1);
 
         Long productToId = requestExchange.getProductTo().getId();
         Optional<Product> productTo2 = productRepository.findById(productToId);
-        UserDTO userDTO = new UserDTO();
-        userDTO.setId(productTo2.get().getUser().getId());
-        userDTO.setName(productTo2.get().getUser().getName());
-        userDTO.setEmail(productTo2.get().getUser().getEmail());
-        userDTO.setAddress(productTo2.get().getUser().getAddress());
-        userDTO.setCellphoneNumber(productTo2.get().getUser().getCellphoneNumber());
+        registerParticipants(exchange, productRepository.findOwnerIdById(requestExchange.getProductFrom().getId()),
+                productTo2.get().getUser().getId());
 
-        notificationService.sendNotification(userDTO, "Tienes una nueva solicitud de intercambio para tu producto: " + 
-        productTo2.get().getTitle());
+        // Se envía en segundo plano cuando se confirme la transacción
+        eventPublisher.publishEvent(new NotificationsRequestedEvent(List.of(productTo2.get().getUser().getId()),
+                "Tienes una nueva solicitud de intercambio para tu producto: " + productTo2.get().getTitle()));
 
         ExchangeDTO responseExchange = new ExchangeDTO();
         responseExchange.setId(exchange.getId());
@@ -80,6 +123,7 @@ public class ExchangeServiceImpl implements ExchangeService {
     }
 
     @Override
+    @Transactional
     public ExchangeDTO createRequestExchangeWithExistingProduct(CreateExchangeRequestDTO request) {
         // Verificar que los productos existen
         Product productFrom = productRepository.findById(request.getProductFromId())
@@ -109,17 +153,12 @@ public class ExchangeServiceImpl implements ExchangeService {
         exchange.setProductTo(productTo);
 
         exchangeRepository.save(exchange);
+        counterService.recordExchangeStatusChange(null, "pendiente", 1);
+        registerParticipants(exchange, productFrom.getUser().getId(), productTo.getUser().getId());
 
-        // Enviar notificación al propietario del producto solicitado
-        UserDTO userDTO = new UserDTO();
-        userDTO.setId(productTo.getUser().getId());
-        userDTO.setName(productTo.getUser().getName());
-        userDTO.setEmail(productTo.getUser().getEmail());
-        userDTO.setAddress(productTo.getUser().getAddress());
-        userDTO.setCellphoneNumber(productTo.getUser().getCellphoneNumber());
-
-        notificationService.sendNotification(userDTO, "Tienes una nueva solicitud de intercambio para tu producto: " + 
-                productTo.getTitle());
+        // Enviar notificación al propietario del producto solicitado, en segundo plano tras el commit
+        eventPublisher.publishEvent(new NotificationsRequestedEvent(List.of(productTo.getUser().getId()),
+                "Tienes una nueva solicitud de intercambio para tu producto: " + productTo.getTitle()));
 
         // Crear respuesta
         ExchangeDTO responseExchange = new ExchangeDTO();
@@ -134,137 +173,264 @@ public class ExchangeServiceImpl implements ExchangeService {
     }
 
     @Override
-    @Transactional
     public ExchangeDTO selectExchangeRequest(ExchangeDTO requestExchange) {
-        Exchange optionalExchange = exchangeRepository.findById(requestExchange.getId()).orElseThrow(() -> new ExchangeNotFoundException("No existe el intercambio"));
-
-        optionalExchange.setStatus("pendiente");
-        optionalExchange.setExchangeRespondedAt(LocalDateTime.now());
-
-        List<Exchange> requestExchangeAsocidas = exchangeRepository.findByProductTo(requestExchange.getProductTo());
-        for (Exchange rExchange: requestExchangeAsocidas){
-            if (rExchange.getStatus().equals("pendiente")){
-                rExchange.setStatus("rechazada");
+        return inTransactionWithRetry(() -> {
+            Exchange selected = exchangeRepository.findById(requestExchange.getId())
+                    .orElseThrow(() -> new ExchangeNotFoundException("No existe el intercambio"));
+
+            transition(selected, ExchangeStatus.ACEPTADA);
+
+            // Se leen y bloquean las demás solicitudes y se rechazan en un único UPDATE por id;
+            // la misma lista sirve para los participantes y las notificaciones
+            Product productTo = selected.getProductTo();
+            List<RejectedExchangeDTO> rejectedRequests = exchangeRepository.findCompetingRequests(productTo.getId(),
+                    selected.getId());
+            if (!rejectedRequests.isEmpty()) {
+                List<Long> rejectedIds = rejectedRequests.stream()
+                        .map(RejectedExchangeDTO::getExchangeId)
+                        .toList();
+                int rejected = exchangeRepository.rejectRequests(rejectedIds, LocalDateTime.now());
+                if (rejected != rejectedIds.size()) {
+                    // Alguna dejó de estar pendiente entre la lectura y el UPDATE: se reintenta todo
+                    throw new ObjectOptimisticLockingFailureException(Exchange.class, selected.getId());
+                }
+                exchangeParticipantRepository.updateStatus(rejectedIds, ExchangeStatus.RECHAZADA.getValue());
+                counterService.recordExchangeStatusChange(ExchangeStatus.PENDIENTE.getValue(),
+                        ExchangeStatus.RECHAZADA.getValue(), rejected);
+
+                // Se notifica a los solicitantes después del commit, todos en un mismo lote
+                eventPublisher.publishEvent(new NotificationsRequestedEvent(rejectedRequests.stream()
+                        .map(RejectedExchangeDTO::getRequesterId)
+                        .distinct()
+                        .toList(), "Tu solicitud de intercambio por el producto " + productTo.getTitle()
+                        + " fue rechazada porque el dueño aceptó otra oferta"));
             }
-        }
-
-        exchangeRepository.saveAll(requestExchangeAsocidas);
 
-        ExchangeDTO completedExchangeDTO = new ExchangeDTO();
-        completedExchangeDTO.setId(optionalExchange.getId());
-        completedExchangeDTO.setStatus(optionalExchange.getStatus());
-        completedExchangeDTO.setProductTo(optionalExchange.getProductTo());
-        completedExchangeDTO.setProductFrom(optionalExchange.getProductFrom());
-        completedExchangeDTO.setExchangeRequestedAt(optionalExchange.getExchangeRequestedAt());
-        completedExchangeDTO.setExchangeRespondedAt(optionalExchange.getExchangeRespondedAt());
+            Exchange accepted = exchangeRepository.findById(selected.getId()).orElseThrow();
+            ExchangeDTO completedExchangeDTO = new ExchangeDTO();
+            completedExchangeDTO.setId(accepted.getId());
+            completedExchangeDTO.setStatus(accepted.getStatus());
+            completedExchangeDTO.setProductTo(accepted.getProductTo());
+            completedExchangeDTO.setProductFrom(accepted.getProductFrom());
+            completedExchangeDTO.setExchangeRequestedAt(accepted.getExchangeRequestedAt());
+            completedExchangeDTO.setExchangeRespondedAt(accepted.getExchangeRespondedAt());
+
+            return completedExchangeDTO;
+        });
+    }
 
-        return completedExchangeDTO;
+    @Override
+    public List<ExchangeSummaryDTO> findByProductTo(ProductDTO productDTO) {
+        return exchangeRepository.findSummariesByProductToId(productDTO.getId());
     }
 
     @Override
-    public List<ExchangeDTO> findByProductTo(ProductDTO productDTO) {
-        Optional<Product> product = productRepository.findById(productDTO.getId());
-        List<Exchange> exchanges = exchangeRepository.findByProductTo(product.get());
-
-        return exchanges.stream()
-                .map(exchange -> new ExchangeDTO(
-                        exchange.getId(),
-                        exchange.getProductFrom(),
-                        exchange.getProductTo(),
-                        exchange.getStatus(),
-                        exchange.getExchangeRequestedAt(),
-                        exchange.getExchangeRespondedAt()
-                ))
-                .collect(Collectors.toList());
+    public Long countExchanges() {
+        return counterService.getTotalExchanges();
+    }
 
+    @Override
+    public Map<String, Long> countExchangesByStatus() {
+        return counterService.getExchangesByStatus();
     }
 
     @Override
-    public Long countExchanges() {
-        return exchangeRepository.count();
+    public ExchangePageDTO getAllExchange() {
+        // Las respuestas sin paginar se cortan en MAX_LEGACY_EXCHANGES; el cursor indica dónde seguir en /exchanges/page
+        return toPage(exchangeRepository.findSummaries(null, null, null, PageRequest.of(0, MAX_LEGACY_EXCHANGES + 1)),
+                MAX_LEGACY_EXCHANGES);
     }
 
     @Override
-    public List<ExchangeDTO> getAllExchange() {
-        List<Exchange> exchanges =exchangeRepository.findAll();
-        List<ExchangeDTO> exchangeDTOS = new ArrayList<ExchangeDTO>();
-        for (Exchange exchange: exchanges){
-            ExchangeDTO exchangeDTO = new ExchangeDTO();
-            exchangeDTO.setId(exchange.getId());
-            exchangeDTO.setExchangeRequestedAt(exchange.getExchangeRequestedAt());
-            exchangeDTO.setExchangeRespondedAt(exchange.getExchangeRespondedAt());
-            exchangeDTO.setStatus(exchange.getStatus());
-            exchangeDTO.setProductFrom(exchange.getProductFrom());
-            exchangeDTO.setProductTo(exchange.getProductTo());
-            exchangeDTOS.add(exchangeDTO);
+    public ExchangePageDTO getExchangesPage(String status, LocalDateTime from, LocalDateTime to, String cursor, Integer size) {
+        int pageSize = (size == null || size <= 0) ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+
+        // Se pide un elemento extra para saber si existe una página siguiente sin hacer COUNT
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<ExchangeSummaryDTO> exchanges;
+        if (cursor == null || cursor.isBlank()) {
+            exchanges = exchangeRepository.findSummaries(status, from, to, limit);
+        } else {
+            KeysetCursor<LocalDateTime> position = KeysetCursor.decode(cursor, LocalDateTime::parse);
+            exchanges = exchangeRepository.findSummariesAfterCursor(status, from, to,
+                    position.value(), position.id(), limit);
         }
 
-        return exchangeDTOS;
+        return toPage(exchanges, pageSize);
     }
 
     @Override
-    public List<ExchangeDTO> getCompletedExchangesByUserId(Long userId) {
-        List<Exchange> exchanges = exchangeRepository.findByProductToUserId(userId);
-
-        return exchanges.stream()
-                .map(e -> new ExchangeDTO(
-                        e.getId(),
-                        e.getProductFrom(),
-                        e.getProductTo(),
-                        e.getStatus(),
-                        e.getExchangeRequestedAt(),
-                        e.getExchangeRespondedAt()
-                ))
-                .collect(Collectors.toList());
+    public void streamExchanges(String status, LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(ExchangeSummaryDTO.class);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        try {
+            // La conexión queda abierta mientras se escribe la respuesta, una fila a la vez
+            readOnly.executeWithoutResult(transaction -> {
+                try (Stream<ExchangeSummaryDTO> exchanges = exchangeRepository.streamSummaries(status, from, to)) {
+                    int written = 0;
+                    Iterator<ExchangeSummaryDTO> iterator = exchanges.iterator();
+                    while (iterator.hasNext()) {
+                        out.write(writer.writeValueAsBytes(iterator.next()));
+                        out.write('\n');
+                        if (++written % STREAM_FLUSH_ROWS == 0) {
+                            out.flush();
+                        }
+                    }
+                    out.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
 
+    @Override
+    public ExchangePageDTO getCompletedExchangesByUserId(Long userId) {
+        // Intercambios pendientes en los que participa el usuario, como dueño de cualquiera de los dos productos
+        return toPage(exchangeParticipantRepository.findSummariesByUserId(userId, "pendiente",
+                PageRequest.of(0, MAX_LEGACY_EXCHANGES + 1)), MAX_LEGACY_EXCHANGES);
     }
 
     @Override
-    public ExchangeDTO confirmReceived(Long exchangeId, Long userId) {
-        Exchange exchange = exchangeRepository.findById(exchangeId)
-                .orElseThrow(() -> new ExchangeNotFoundException("Intercambio no encontrado"));
+    public ExchangePageDTO getExchangesByUser(Long userId, String status, String cursor, Integer size) {
+        int pageSize = (size == null || size <= 0) ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
 
-        if (!exchange.getProductFrom().getUser().getId().equals(userId) &&
-                !exchange.getProductTo().getUser().getId().equals(userId)) {
-            throw new RuntimeException("No tienes permiso para confirmar este intercambio.");
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<ExchangeSummaryDTO> exchanges;
+        if (cursor == null || cursor.isBlank()) {
+            exchanges = exchangeParticipantRepository.findSummariesByUserId(userId, status, limit);
+        } else {
+            KeysetCursor<LocalDateTime> position = KeysetCursor.decode(cursor, LocalDateTime::parse);
+            exchanges = exchangeParticipantRepository.findSummariesByUserIdAfterCursor(userId, status,
+                    position.value(), position.id(), limit);
         }
 
-        if (exchange.getProductFrom().getUser().getId().equals(userId)) {
-            exchange.setProductFromConfirmed(true);
-        } else {
-            exchange.setProductToConfirmed(true);
+        return toPage(exchanges, pageSize);
+    }
+
+    // Las consultas piden un elemento extra: si llegó, hay más y el cursor apunta al último devuelto
+    private ExchangePageDTO toPage(List<ExchangeSummaryDTO> exchanges, int pageSize) {
+        String nextCursor = null;
+        if (exchanges.size() > pageSize) {
+            exchanges = exchanges.subList(0, pageSize);
+            nextCursor = KeysetCursor.encode(exchanges.get(pageSize - 1).getExchangeRequestedAt(),
+                    exchanges.get(pageSize - 1).getId());
         }
+        return new ExchangePageDTO(exchanges, nextCursor);
+    }
 
-        // Si ambos confirmaron, marcar como COMPLETADO
-        if (exchange.isProductFromConfirmed() && exchange.isProductToConfirmed()) {
-            exchange.setStatus("completado");
+    // Una fila por dueño; si ambos productos son del mismo usuario basta con una
+    private void registerParticipants(Exchange exchange, Long productFromOwnerId, Long productToOwnerId) {
+        List<ExchangeParticipant> participants = new ArrayList<>();
+        participants.add(new ExchangeParticipant(null, exchange, productFromOwnerId, exchange.getStatus(),
+                exchange.getExchangeRequestedAt()));
+        if (!productToOwnerId.equals(productFromOwnerId)) {
+            participants.add(new ExchangeParticipant(null, exchange, productToOwnerId, exchange.getStatus(),
+                    exchange.getExchangeRequestedAt()));
         }
+        exchangeParticipantRepository.saveAll(participants);
+    }
 
-        exchangeRepository.save(exchange);
+    @Override
+    public ExchangeDTO confirmReceived(Long exchangeId, Long userId) {
+        return inTransactionWithRetry(() -> {
+            Exchange exchange = exchangeRepository.findById(exchangeId)
+                    .orElseThrow(() -> new ExchangeNotFoundException("Intercambio no encontrado"));
+
+            boolean productFromOwner = exchange.getProductFrom().getUser().getId().equals(userId);
+            boolean productToOwner = exchange.getProductTo().getUser().getId().equals(userId);
+            if (!productFromOwner && !productToOwner) {
+                throw new RuntimeException("No tienes permiso para confirmar este intercambio.");
+            }
+
+            if (!ExchangeStatus.ACEPTADA.getValue().equals(exchange.getStatus())) {
+                throw new ExchangeStateException("Solo se puede confirmar un intercambio aceptado, estado actual: "
+                        + exchange.getStatus());
+            }
+
+            // Cada parte marca solo su propia confirmación, así dos confirmaciones simultáneas no se pisan
+            String accepted = ExchangeStatus.ACEPTADA.getValue();
+            int updated = 0;
+            if (productFromOwner) {
+                updated += exchangeRepository.confirmProductFrom(exchangeId, accepted);
+            }
+            if (productToOwner) {
+                updated += exchangeRepository.confirmProductTo(exchangeId, accepted);
+            }
+            if (updated == 0) {
+                throw new ObjectOptimisticLockingFailureException(Exchange.class, exchangeId);
+            }
+
+            // Si ambos confirmaron, marcar como COMPLETADO; solo una de las confirmaciones lo consigue
+            if (exchangeRepository.completeIfConfirmed(exchangeId, LocalDateTime.now()) == 1) {
+                exchangeParticipantRepository.updateStatus(List.of(exchangeId), ExchangeStatus.COMPLETADO.getValue());
+                counterService.recordExchangeStatusChange(accepted, ExchangeStatus.COMPLETADO.getValue(), 1);
+                // Los productos se desactivan en esta misma transacción
+                eventPublisher.publishEvent(new ExchangeCompletedEvent(exchangeId,
+                        exchange.getProductFrom().getId(), exchange.getProductTo().getId()));
+            }
 
-        return new ExchangeDTO(exchange.getId(), exchange.getProductFrom(), exchange.getProductTo(),
-                exchange.getStatus(), exchange.getExchangeRequestedAt(), exchange.getExchangeRespondedAt());
+            Exchange confirmed = exchangeRepository.findById(exchangeId).orElseThrow();
+            return new ExchangeDTO(confirmed.getId(), confirmed.getProductFrom(), confirmed.getProductTo(),
+                    confirmed.getStatus(), confirmed.getExchangeRequestedAt(), confirmed.getExchangeRespondedAt());
+        });
     }
 
     @Override
     public ExchangeDTO cancelExchange(Long exchangeId, Long userId){
-        Exchange exchange = exchangeRepository.findById(exchangeId)
-                .orElseThrow(() -> new ExchangeNotFoundException("Intercambio no encontrado"));
+        return inTransactionWithRetry(() -> {
+            Exchange exchange = exchangeRepository.findById(exchangeId)
+                    .orElseThrow(() -> new ExchangeNotFoundException("Intercambio no encontrado"));
 
-        if (!exchange.getProductFrom().getUser().getId().equals(userId) &&
-                !exchange.getProductTo().getUser().getId().equals(userId)) {
-            throw new RuntimeException("No tienes permiso para confirmar este intercambio.");
-        }
+            if (!exchange.getProductFrom().getUser().getId().equals(userId) &&
+                    !exchange.getProductTo().getUser().getId().equals(userId)) {
+                throw new RuntimeException("No tienes permiso para confirmar este intercambio.");
+            }
 
-        if (exchange.getProductFrom().getUser().getId().equals(userId)) {
-            exchange.setStatus("cancelado");
-        } else {
-            exchange.setStatus("cancelado");
+            transition(exchange, ExchangeStatus.CANCELADO);
+
+            Exchange canceled = exchangeRepository.findById(exchangeId).orElseThrow();
+            return new ExchangeDTO(canceled.getId(), canceled.getProductFrom(), canceled.getProductTo(),
+                    canceled.getStatus(), canceled.getExchangeRequestedAt(), canceled.getExchangeRespondedAt());
+        });
+    }
+
+    /**
+     * Aplica la transición con un UPDATE condicionado al estado leído. Si otra petición cambió
+     * el intercambio entretanto no se actualiza ninguna fila y se lanza un conflicto para reintentar.
+     */
+    private void transition(Exchange exchange, ExchangeStatus next) {
+        ExchangeStatus current = ExchangeStatus.fromValue(exchange.getStatus());
+        if (!current.canTransitionTo(next)) {
+            throw new ExchangeStateException("No se puede pasar un intercambio " + current.getValue()
+                    + " a " + next.getValue());
         }
 
-        exchangeRepository.save(exchange);
+        int updated = exchangeRepository.transition(exchange.getId(), current.getValue(), next.getValue(),
+                LocalDateTime.now());
+        if (updated == 0) {
+            throw new ObjectOptimisticLockingFailureException(Exchange.class, exchange.getId());
+        }
+        exchangeParticipantRepository.updateStatus(List.of(exchange.getId()), next.getValue());
+        // El contador cambia al confirmarse: un intento revertido y reintentado no cuenta dos veces
+        counterService.recordExchangeStatusChange(current.getValue(), next.getValue(), 1);
+    }
 
-        return new ExchangeDTO(exchange.getId(), exchange.getProductFrom(), exchange.getProductTo(),
-                exchange.getStatus(), exchange.getExchangeRequestedAt(), exchange.getExchangeRespondedAt());
+    // Cada intento es una transacción nueva que vuelve a leer el intercambio
+    private <T> T inTransactionWithRetry(Supplier<T> work) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transaction.execute(status -> work.get());
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= MAX_TRANSITION_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
     }
 }
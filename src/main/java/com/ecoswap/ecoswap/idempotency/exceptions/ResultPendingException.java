@@ -0,0 +1,21 @@
+package com.ecoswap.ecoswap.idempotency.exceptions;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * La acción se aceptó pero su resultado aún no se conoce. La reserva idempotente no se libera:
+ * se completa con el resultado (o se libera si falla) cuando el futuro termina.
+ */
+public class ResultPendingException extends RuntimeException {
+
+    private final CompletableFuture<?> result;
+
+    public ResultPendingException(String message, CompletableFuture<?> result) {
+        super(message);
+        this.result = result;
+    }
+
+    public CompletableFuture<?> getResult() {
+        return result;
+    }
+}
@@ -0,0 +1,51 @@
+package com.ecoswap.ecoswap.idempotency.models.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Respuesta registrada para una clave Idempotency-Key. La restricción única sobre la clave
+ * garantiza que solo una de varias peticiones repetidas ejecute la escritura.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "idempotency_keys",
+        uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_key", columnNames = "idempotency_key"),
+        indexes = @Index(name = "idx_idempotency_expires", columnList = "expires_at"))
+public class IdempotencyRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "idempotency_key", nullable = false, length = 191)
+    private String idempotencyKey;
+
+    // "pendiente" mientras se procesa la petición original, "completado" cuando hay respuesta guardada
+    @Column(nullable = false, length = 15)
+    private String status;
+
+    // SHA-256 del cuerpo de la petición original: la misma clave con otro cuerpo se rechaza
+    @Column(name = "request_hash", length = 64)
+    private String requestHash;
+
+    private Integer responseStatus;
+
+    @Lob
+    @Column(columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
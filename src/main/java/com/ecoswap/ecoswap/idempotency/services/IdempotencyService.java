@@ -0,0 +1,20 @@
+package com.ecoswap.ecoswap.idempotency.services;
+
+import java.util.function.Supplier;
+
+import org.springframework.http.ResponseEntity;
+
+public interface IdempotencyService {
+    /**
+     * Ejecuta la acción una sola vez por clave. Las repeticiones reciben la respuesta guardada
+     * y, si la original sigue en curso, un 409. Reutilizar la clave con otro cuerpo devuelve 422.
+     * Sin clave la acción se ejecuta siempre. Si la acción lanza ResultPendingException la clave sigue
+     * reservada hasta que su resultado se conozca.
+     *
+     * @param scope operación protegida, forma parte de la clave junto con el usuario autenticado
+     * @param request cuerpo de la petición, se guarda su hash junto a la clave
+     */
+    ResponseEntity<?> execute(String scope, String idempotencyKey, Object request, Supplier<ResponseEntity<?>> action);
+
+    void purgeExpired();
+}
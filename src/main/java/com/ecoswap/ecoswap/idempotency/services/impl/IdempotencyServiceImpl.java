@@ -0,0 +1,222 @@
+package com.ecoswap.ecoswap.idempotency.services.impl;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import com.ecoswap.ecoswap.exception.ErrorResponse;
+import com.ecoswap.ecoswap.idempotency.exceptions.ResultPendingException;
+import com.ecoswap.ecoswap.idempotency.models.entities.IdempotencyRecord;
+import com.ecoswap.ecoswap.idempotency.repositories.IdempotencyRecordRepository;
+import com.ecoswap.ecoswap.idempotency.services.IdempotencyService;
+import com.ecoswap.ecoswap.user.models.entities.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final String PENDING = "pendiente";
+    private static final String COMPLETED = "completado";
+    private static final int MAX_KEY_LENGTH = 100;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final TransactionTemplate newTransaction;
+    private final Duration ttl;
+    // Una reserva pendiente más antigua que esto se da por abandonada (la petición original murió)
+    private final Duration pendingLease;
+    // Respuestas ya completadas: evita ir a la base de datos en los reintentos inmediatos
+    private final Cache<String, StoredResponse> completedResponses;
+
+    public IdempotencyServiceImpl(PlatformTransactionManager transactionManager,
+                                  @Value("${idempotency.ttl-hours}") long ttlHours,
+                                  @Value("${idempotency.cache-size}") long cacheSize,
+                                  @Value("${idempotency.pending-lease-seconds}") long pendingLeaseSeconds) {
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.ttl = Duration.ofHours(ttlHours);
+        this.pendingLease = Duration.ofSeconds(pendingLeaseSeconds);
+        this.completedResponses = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    @Override
+    public ResponseEntity<?> execute(String scope, String idempotencyKey, Object request, Supplier<ResponseEntity<?>> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("La cabecera Idempotency-Key admite como máximo " + MAX_KEY_LENGTH + " caracteres");
+        }
+
+        String key = scope + ":" + currentUserKey() + ":" + idempotencyKey;
+        String requestHash = hash(request);
+
+        StoredResponse cached = completedResponses.getIfPresent(key);
+        if (cached != null) {
+            return requestHash.equals(cached.requestHash()) ? replay(cached) : keyReused();
+        }
+
+        Long reservationId = reserve(key, requestHash);
+        if (reservationId == null) {
+            Optional<IdempotencyRecord> existing = idempotencyRecordRepository.findByIdempotencyKey(key);
+            if (existing.isPresent() && !requestHash.equals(existing.get().getRequestHash())) {
+                return keyReused();
+            }
+            if (existing.isPresent() && COMPLETED.equals(existing.get().getStatus())) {
+                StoredResponse stored = new StoredResponse(existing.get().getResponseStatus(), existing.get().getResponseBody(),
+                        requestHash);
+                completedResponses.put(key, stored);
+                return replay(stored);
+            }
+            // La petición original sigue en curso (o acaba de fallar): el cliente debe reintentar más tarde
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorResponse(HttpStatus.CONFLICT.value(),
+                    "Ya hay una petición en curso con la misma Idempotency-Key", LocalDateTime.now()));
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (ResultPendingException e) {
+            // La escritura puede confirmarse todavía: un reintento recibe 409 hasta que termine y después
+            // la respuesta guardada, nunca un duplicado
+            e.getResult().whenComplete((result, failure) -> {
+                if (failure != null) {
+                    release(reservationId);
+                } else {
+                    complete(key, reservationId, new StoredResponse(HttpStatus.OK.value(), toJson(result), requestHash));
+                }
+            });
+            throw e;
+        } catch (RuntimeException e) {
+            // La escritura no se hizo: se libera la clave para que un reintento pueda ejecutarla
+            release(reservationId);
+            throw e;
+        }
+
+        complete(key, reservationId, new StoredResponse(response.getStatusCode().value(), toJson(response.getBody()),
+                requestHash));
+        return response;
+    }
+
+    private void complete(String key, Long reservationId, StoredResponse stored) {
+        // Por id: si la reserva se dio por abandonada y otra petición tomó la clave, no se pisa su registro
+        newTransaction.executeWithoutResult(status -> idempotencyRecordRepository.findById(reservationId)
+                .ifPresent(record -> {
+                    record.setStatus(COMPLETED);
+                    record.setResponseStatus(stored.status());
+                    record.setResponseBody(stored.body());
+                }));
+        completedResponses.put(key, stored);
+    }
+
+    private void release(Long reservationId) {
+        newTransaction.executeWithoutResult(status -> idempotencyRecordRepository.deleteById(reservationId));
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        newTransaction.executeWithoutResult(status -> idempotencyRecordRepository.deleteExpired(LocalDateTime.now()));
+    }
+
+    /**
+     * Inserta la clave como pendiente; la restricción única decide quién ejecuta la acción.
+     *
+     * @return id de la reserva, o null si otra petición ya tiene la clave
+     */
+    private Long reserve(String key, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            return newTransaction.execute(status -> {
+                // Una clave caducada que aún no se purgó, o una reserva pendiente cuya petición murió,
+                // no debe bloquear la nueva petición (si el cuerpo es el mismo)
+                idempotencyRecordRepository.findByIdempotencyKey(key)
+                        .filter(record -> record.getExpiresAt().isBefore(now) || (PENDING.equals(record.getStatus())
+                                && requestHash.equals(record.getRequestHash())
+                                && record.getCreatedAt().isBefore(now.minus(pendingLease))))
+                        .ifPresent(record -> idempotencyRecordRepository.deleteByIdempotencyKey(key));
+                return idempotencyRecordRepository.saveAndFlush(new IdempotencyRecord(null, key, PENDING, requestHash,
+                        null, null, now, now.plus(ttl))).getId();
+            });
+        } catch (DataIntegrityViolationException e) {
+            return null;
+        }
+    }
+
+    private ResponseEntity<?> keyReused() {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(new ErrorResponse(
+                HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                "La Idempotency-Key ya se usó con otro cuerpo de petición", LocalDateTime.now()));
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] body = request == null ? new byte[0] : objectMapper.writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("No se pudo calcular el hash de la petición", e);
+        }
+    }
+
+    private ResponseEntity<?> replay(StoredResponse stored) {
+        if (stored.body() == null) {
+            return ResponseEntity.status(stored.status()).build();
+        }
+        try {
+            return ResponseEntity.status(stored.status())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(objectMapper.readTree(stored.body()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Respuesta idempotente ilegible", e);
+        }
+    }
+
+    private String toJson(Object body) {
+        if (body == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo guardar la respuesta idempotente", e);
+        }
+    }
+
+    private String currentUserKey() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof User user) {
+            return String.valueOf(user.getId());
+        }
+        return "anonimo";
+    }
+
+    private record StoredResponse(int status, String body, String requestHash) {
+    }
+}
@@ -1,20 +1,34 @@
 package com.ecoswap.ecoswap.messaging.controllers;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
+import com.ecoswap.ecoswap.exception.ErrorResponse;
+import com.ecoswap.ecoswap.idempotency.services.IdempotencyService;
+import com.ecoswap.ecoswap.messaging.exceptions.ChatQueueFullException;
 import com.ecoswap.ecoswap.messaging.models.ChatMessage;
 import com.ecoswap.ecoswap.messaging.models.dto.ChatMessageDtoRequest;
+import com.ecoswap.ecoswap.messaging.models.dto.ChatMessageFeedDTO;
+import com.ecoswap.ecoswap.messaging.models.dto.ChatMessagePageDTO;
+import com.ecoswap.ecoswap.messaging.models.dto.ConversationDTO;
+import com.ecoswap.ecoswap.messaging.services.ChatFeedService;
 import com.ecoswap.ecoswap.messaging.services.ChatService;
+import com.ecoswap.ecoswap.messaging.services.ConversationService;
 
 @RestController
 @RequestMapping("/api/v1/chat")
@@ -23,10 +37,21 @@ public class ChatController {
     @Autowired
     private ChatService chatService;
 
+    @Autowired
+    private ConversationService conversationService;
+
+    @Autowired
+    private ChatFeedService chatFeedService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     @PostMapping("/message/create")
-    public ResponseEntity<Void> saveMessage(@RequestBody ChatMessageDtoRequest chatMessage) {
-        chatService.saveMessage(chatMessage);
-        return ResponseEntity.ok().build();
+    public ResponseEntity<?> saveMessage(@RequestBody ChatMessageDtoRequest chatMessage,
+                                         @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute("chat-message-create", idempotencyKey, chatMessage, () -> {
+            return ResponseEntity.ok(chatService.saveMessage(chatMessage));
+        });
     }
 
     @GetMapping("/message")
@@ -35,8 +60,50 @@ public class ChatController {
         return ResponseEntity.ok(chatService.getMessagesBySenderAndReceiver(sender, receiver));
     }
 
+    @GetMapping("/message/page")
+    public ResponseEntity<ChatMessagePageDTO> getConversationPage(@RequestParam Long receiver,
+                                                                  @RequestParam(required = false) String cursor,
+                                                                  @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(chatService.getConversationPage(receiver, cursor, size));
+    }
+
+    @GetMapping("/exchange/{exchangeId}/history")
+    public ResponseEntity<ChatMessagePageDTO> getExchangeHistoryPage(@PathVariable Long exchangeId,
+                                                                     @RequestParam(required = false) String cursor,
+                                                                     @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(chatService.getExchangeHistoryPage(exchangeId, cursor, size));
+    }
+
+    @GetMapping("/exchange/{exchangeId}/messages")
+    public DeferredResult<ChatMessageFeedDTO> getExchangeMessages(@PathVariable Long exchangeId,
+                                                                  @RequestParam(required = false) Long sinceId,
+                                                                  @RequestParam(required = false) Integer limit,
+                                                                  @RequestParam(required = false) Long waitMs) {
+        return chatFeedService.getMessages(exchangeId, sinceId, limit, waitMs);
+    }
+
+    @GetMapping("/conversations")
+    public ResponseEntity<List<ConversationDTO>> getInbox(@RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(conversationService.getInbox(size));
+    }
+
+    @PostMapping("/conversations/{conversationId}/read")
+    public ResponseEntity<Void> markConversationRead(@PathVariable Long conversationId) {
+        if (!conversationService.markRead(conversationId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/message/exchange/{receiverId}")
     public ResponseEntity<List<ChatMessage>> getMessagesByExchangeId(@PathVariable Long receiverId) {
         return ResponseEntity.ok(chatService.getMessagesByExchangeId(receiverId));
     }
+
+    @ExceptionHandler(ChatQueueFullException.class)
+    public ResponseEntity<ErrorResponse> handleChatQueueFull(ChatQueueFullException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.value(), ex.getMessage(), LocalDateTime.now()));
+    }
 }
@@ -0,0 +1,46 @@
+package com.ecoswap.ecoswap.messaging.controllers;
+
+import java.security.Principal;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Controller;
+
+import com.ecoswap.ecoswap.configuration.StompPrincipal;
+import com.ecoswap.ecoswap.exception.ErrorResponse;
+import com.ecoswap.ecoswap.messaging.models.dto.ChatMessageDtoRequest;
+import com.ecoswap.ecoswap.messaging.models.dto.ChatMessageDtoResponse;
+import com.ecoswap.ecoswap.messaging.services.ChatService;
+
+/**
+ * Chat en tiempo real sobre STOMP (/ws). El cliente envía a /app/chat.send y recibe
+ * en /user/queue/chat o suscrito a /topic/exchange/{id}/chat.
+ */
+@Controller
+public class ChatSocketController {
+
+    @Autowired
+    private ChatService chatService;
+
+    @MessageMapping("/chat.send")
+    @SendToUser(value = "/queue/chat.ack", broadcast = false)
+    public CompletableFuture<ChatMessageDtoResponse> sendMessage(@Payload ChatMessageDtoRequest chatMessage, Principal principal) {
+        // El remitente es siempre el usuario de la sesión, no el que diga el payload.
+        // No bloquea el hilo de entrada: la confirmación se envía cuando el lote se guarda
+        return chatService.submitMessage(chatMessage, ((StompPrincipal) principal).getUserId());
+    }
+
+    @MessageExceptionHandler
+    @SendToUser(value = "/queue/errors", broadcast = false)
+    public ErrorResponse handleException(Exception ex) {
+        HttpStatus status = ex instanceof AccessDeniedException ? HttpStatus.FORBIDDEN : HttpStatus.BAD_REQUEST;
+        return new ErrorResponse(status.value(), ex.getMessage(), LocalDateTime.now());
+    }
+}
@@ -0,0 +1,17 @@
+package com.ecoswap.ecoswap.messaging.events;
+
+import java.util.List;
+
+import com.ecoswap.ecoswap.messaging.models.dto.ChatMessageDtoResponse;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Mensajes de chat ya confirmados en base de datos por un mismo lote del ChatMessageWriter.
+ */
+@Getter
+@AllArgsConstructor
+public class ChatMessagesPersistedEvent {
+    private final List<ChatMessageDtoResponse> messages;
+}
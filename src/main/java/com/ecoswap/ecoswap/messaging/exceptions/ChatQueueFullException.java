@@ -0,0 +1,8 @@
+package com.ecoswap.ecoswap.messaging.exceptions;
+
+public class ChatQueueFullException extends RuntimeException {
+
+    public ChatQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -16,7 +16,12 @@ import com.ecoswap.ecoswap.user.models.entities.User;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "chat_messages")
+@Table(name = "chat_messages", indexes = {
+        // InnoDB añade el id al final de cada índice, así que ambos sirven para el orden (timestamp, id)
+        @Index(name = "idx_chat_sender_receiver_ts", columnList = "sender_id, receiver_id, timestamp"),
+        @Index(name = "idx_chat_exchange_ts", columnList = "exchange_id, timestamp"),
+        @Index(name = "idx_chat_exchange_id", columnList = "exchange_id, id")
+})
 public class ChatMessage {
 
     @Id
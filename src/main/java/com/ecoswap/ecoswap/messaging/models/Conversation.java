@@ -0,0 +1,61 @@
+package com.ecoswap.ecoswap.messaging.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Conversación entre dos usuarios dentro de un intercambio. La pareja se guarda ordenada
+ * (userLowId < userHighId) para que ambos sentidos del chat caigan en la misma fila.
+ * Mantiene una copia del último mensaje y los no leídos de cada participante, actualizados
+ * por el ChatMessageWriter en la misma transacción que inserta los mensajes.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "conversations",
+        uniqueConstraints = @UniqueConstraint(name = "uk_conversation_users_exchange",
+                columnNames = {"user_low_id", "user_high_id", "exchange_id"}),
+        indexes = {
+                @Index(name = "idx_conversation_low_last", columnList = "user_low_id, last_message_at"),
+                @Index(name = "idx_conversation_high_last", columnList = "user_high_id, last_message_at")
+        })
+public class Conversation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_low_id", nullable = false)
+    private Long userLowId;
+
+    @Column(name = "user_high_id", nullable = false)
+    private Long userHighId;
+
+    @Column(name = "exchange_id", nullable = false)
+    private Long exchangeId;
+
+    @Column(name = "last_message_id")
+    private Long lastMessageId;
+
+    @Column(name = "last_sender_id")
+    private Long lastSenderId;
+
+    @Column(name = "last_message_content")
+    private String lastMessageContent;
+
+    @Column(name = "last_message_at")
+    private LocalDateTime lastMessageAt;
+
+    @Column(name = "unread_low", nullable = false)
+    private int unreadLow;
+
+    @Column(name = "unread_high", nullable = false)
+    private int unreadHigh;
+}
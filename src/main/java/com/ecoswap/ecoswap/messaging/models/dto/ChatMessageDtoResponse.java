@@ -1,5 +1,7 @@
 package com.ecoswap.ecoswap.messaging.models.dto;
 
+import java.time.LocalDateTime;
+
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -15,7 +17,7 @@ public class ChatMessageDtoResponse {
     private Long senderId;
     private Long receiverId;
     private String content;
-    private String timestamp;
+    private LocalDateTime timestamp;
     private Long exchangeId;
 
 }
@@ -0,0 +1,17 @@
+package com.ecoswap.ecoswap.messaging.models.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+public class ChatMessageFeedDTO {
+    // Del más antiguo al más reciente
+    private List<ChatMessageDtoResponse> messages;
+    // sinceId para la siguiente consulta; igual al recibido si no hubo mensajes nuevos
+    private Long lastId;
+}
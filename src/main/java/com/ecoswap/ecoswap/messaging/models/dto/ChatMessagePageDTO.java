@@ -0,0 +1,20 @@
+package com.ecoswap.ecoswap.messaging.models.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ChatMessagePageDTO {
+    // Del más reciente al más antiguo
+    private List<ChatMessageDtoResponse> messages;
+    // Token opaco para pedir mensajes anteriores, null si no hay más
+    private String nextCursor;
+}
@@ -0,0 +1,25 @@
+package com.ecoswap.ecoswap.messaging.models.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ConversationDTO {
+
+    private Long id;
+    private Long exchangeId;
+    private Long otherUserId;
+    private String otherUserName;
+    private Long lastSenderId;
+    private String lastMessage;
+    private LocalDateTime lastMessageAt;
+    private int unreadCount;
+
+}
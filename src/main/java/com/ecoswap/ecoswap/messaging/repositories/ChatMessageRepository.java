@@ -1,9 +1,12 @@
 package com.ecoswap.ecoswap.messaging.repositories;
 
 import com.ecoswap.ecoswap.messaging.models.ChatMessage;
+import com.ecoswap.ecoswap.messaging.models.dto.ChatMessageDtoResponse;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,6 +16,14 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
 
+    // Los ids se leen de las columnas de la propia tabla, sin JOIN a usuarios ni intercambios
+    String MESSAGE_DTO_SELECT = "SELECT new com.ecoswap.ecoswap.messaging.models.dto.ChatMessageDtoResponse(" +
+            "m.id, m.sender.id, m.receiver.id, m.content, m.timestamp, m.exchange.id) FROM ChatMessage m ";
+
+    String MESSAGE_BEFORE_CURSOR = "AND (m.timestamp < :timestamp OR (m.timestamp = :timestamp AND m.id < :id)) ";
+
+    String MESSAGE_KEYSET_ORDER = "ORDER BY m.timestamp DESC, m.id DESC";
+
     List<ChatMessage> findAllBySender_IdAndReceiver_Id(Long senderId, Long receiverId);
     List<ChatMessage> findAllBySenderIdOrReceiverId(Long senderId, Long receiverId);
     List<ChatMessage> findAllByReceiverIdOrderByTimestampDesc(Long receiverId);
@@ -22,5 +33,32 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long>
            "(m.sender.id = :otherUserId AND m.receiver.id = :userId) " +
            "ORDER BY m.timestamp ASC")
     List<ChatMessage> findMessagesBetweenUsers(@Param("userId") Long userId, @Param("otherUserId") Long otherUserId);
+
+    @Query(MESSAGE_DTO_SELECT + "WHERE m.sender.id = :senderId AND m.receiver.id = :receiverId " + MESSAGE_KEYSET_ORDER)
+    List<ChatMessageDtoResponse> findLatestSent(@Param("senderId") Long senderId,
+                                                @Param("receiverId") Long receiverId,
+                                                Pageable pageable);
+
+    @Query(MESSAGE_DTO_SELECT + "WHERE m.sender.id = :senderId AND m.receiver.id = :receiverId " +
+            MESSAGE_BEFORE_CURSOR + MESSAGE_KEYSET_ORDER)
+    List<ChatMessageDtoResponse> findLatestSentBefore(@Param("senderId") Long senderId,
+                                                      @Param("receiverId") Long receiverId,
+                                                      @Param("timestamp") LocalDateTime timestamp,
+                                                      @Param("id") Long id,
+                                                      Pageable pageable);
+
+    @Query(MESSAGE_DTO_SELECT + "WHERE m.exchange.id = :exchangeId AND m.id > :sinceId ORDER BY m.id ASC")
+    List<ChatMessageDtoResponse> findByExchangeAfterId(@Param("exchangeId") Long exchangeId,
+                                                       @Param("sinceId") Long sinceId,
+                                                       Pageable pageable);
+
+    @Query(MESSAGE_DTO_SELECT + "WHERE m.exchange.id = :exchangeId " + MESSAGE_KEYSET_ORDER)
+    List<ChatMessageDtoResponse> findLatestByExchange(@Param("exchangeId") Long exchangeId, Pageable pageable);
+
+    @Query(MESSAGE_DTO_SELECT + "WHERE m.exchange.id = :exchangeId " + MESSAGE_BEFORE_CURSOR + MESSAGE_KEYSET_ORDER)
+    List<ChatMessageDtoResponse> findLatestByExchangeBefore(@Param("exchangeId") Long exchangeId,
+                                                            @Param("timestamp") LocalDateTime timestamp,
+                                                            @Param("id") Long id,
+                                                            Pageable pageable);
     
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.ecoswap.ecoswap.messaging.repositories;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.ecoswap.ecoswap.messaging.models.Conversation;
+import com.ecoswap.ecoswap.messaging.models.dto.ConversationDTO;
+
+@Repository
+public interface ConversationRepository extends JpaRepository<Conversation, Long> {
+
+    @Query("SELECT new com.ecoswap.ecoswap.messaging.models.dto.ConversationDTO(c.id, c.exchangeId, u.id, u.name, " +
+            "c.lastSenderId, c.lastMessageContent, c.lastMessageAt, " +
+            "CASE WHEN c.userLowId = :userId THEN c.unreadLow ELSE c.unreadHigh END) " +
+            "FROM Conversation c JOIN User u ON (c.userLowId = :userId AND u.id = c.userHighId) " +
+            "OR (c.userHighId = :userId AND u.id = c.userLowId) " +
+            "WHERE c.userLowId = :userId OR c.userHighId = :userId " +
+            "ORDER BY c.lastMessageAt DESC, c.id DESC")
+    List<ConversationDTO> findInbox(@Param("userId") Long userId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Conversation c SET " +
+            "c.unreadLow = CASE WHEN c.userLowId = :userId THEN 0 ELSE c.unreadLow END, " +
+            "c.unreadHigh = CASE WHEN c.userHighId = :userId THEN 0 ELSE c.unreadHigh END " +
+            "WHERE c.id = :id AND (c.userLowId = :userId OR c.userHighId = :userId)")
+    int markRead(@Param("id") Long id, @Param("userId") Long userId);
+}
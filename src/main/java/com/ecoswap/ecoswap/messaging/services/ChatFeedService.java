@@ -0,0 +1,133 @@
+package com.ecoswap.ecoswap.messaging.services;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import com.ecoswap.ecoswap.messaging.events.ChatMessagesPersistedEvent;
+import com.ecoswap.ecoswap.messaging.models.dto.ChatMessageDtoResponse;
+import com.ecoswap.ecoswap.messaging.models.dto.ChatMessageFeedDTO;
+import com.ecoswap.ecoswap.messaging.repositories.ChatMessageRepository;
+
+/**
+ * Feed de mensajes de un intercambio a partir de un id (sinceId), con espera opcional (long polling)
+ * para clientes sin WebSocket. Los ids crecen en el orden en que se confirman porque un único hilo,
+ * el ChatMessageWriter, inserta los mensajes, así que sinceId nunca se salta un mensaje.
+ */
+@Service
+public class ChatFeedService {
+
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_LIMIT = 200;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private ChatService chatService;
+
+    @Value("${chat.feed.max-wait-ms}")
+    private long maxWaitMs;
+
+    // Peticiones en espera a la vez; por encima se responde sin esperar
+    @Value("${chat.feed.max-waiters}")
+    private int maxWaiters;
+
+    private final Map<Long, Set<Waiter>> waiters = new ConcurrentHashMap<>();
+    private final AtomicInteger waiterCount = new AtomicInteger();
+
+    public DeferredResult<ChatMessageFeedDTO> getMessages(Long exchangeId, Long sinceId, Integer limit, Long waitMs) {
+        chatService.checkParticipant(exchangeId, chatService.currentUserId());
+
+        long since = sinceId == null ? 0L : sinceId;
+        int pageSize = (limit == null || limit <= 0) ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+        long wait = (waitMs == null || waitMs <= 0) ? 0L : Math.min(waitMs, maxWaitMs);
+
+        if (wait > 0 && waiterCount.incrementAndGet() > maxWaiters) {
+            waiterCount.decrementAndGet();
+            wait = 0;
+        }
+        if (wait == 0) {
+            DeferredResult<ChatMessageFeedDTO> result = new DeferredResult<>();
+            result.setResult(toFeed(findAfter(exchangeId, since, pageSize), since));
+            return result;
+        }
+
+        DeferredResult<ChatMessageFeedDTO> result = new DeferredResult<>(wait,
+                () -> new ChatMessageFeedDTO(List.of(), since));
+        Waiter waiter = new Waiter(since, pageSize, result);
+        // Se registra antes de consultar: un mensaje confirmado entre ambos pasos lo ve la consulta o el evento
+        waiters.computeIfAbsent(exchangeId, id -> ConcurrentHashMap.newKeySet()).add(waiter);
+        result.onCompletion(() -> {
+            removeWaiter(exchangeId, waiter);
+            waiterCount.decrementAndGet();
+        });
+
+        List<ChatMessageDtoResponse> messages = findAfter(exchangeId, since, pageSize);
+        if (!messages.isEmpty()) {
+            result.setResult(toFeed(messages, since));
+        }
+        return result;
+    }
+
+    /**
+     * Despierta a los clientes en espera con los mensajes del lote recién confirmado, sin volver a consultar.
+     */
+    @EventListener
+    public void onMessagesPersisted(ChatMessagesPersistedEvent event) {
+        if (waiters.isEmpty()) {
+            return;
+        }
+        Map<Long, List<ChatMessageDtoResponse>> byExchange = new LinkedHashMap<>();
+        for (ChatMessageDtoResponse message : event.getMessages()) {
+            if (message.getId() != null && waiters.containsKey(message.getExchangeId())) {
+                byExchange.computeIfAbsent(message.getExchangeId(), id -> new ArrayList<>()).add(message);
+            }
+        }
+        byExchange.forEach((exchangeId, messages) -> {
+            Set<Waiter> pending = waiters.get(exchangeId);
+            if (pending == null) {
+                return;
+            }
+            for (Waiter waiter : pending) {
+                List<ChatMessageDtoResponse> newer = messages.stream()
+                        .filter(message -> message.getId() > waiter.sinceId)
+                        .limit(waiter.limit)
+                        .toList();
+                if (!newer.isEmpty()) {
+                    waiter.result.setResult(toFeed(newer, waiter.sinceId));
+                }
+            }
+        });
+    }
+
+    private List<ChatMessageDtoResponse> findAfter(Long exchangeId, long sinceId, int limit) {
+        return chatMessageRepository.findByExchangeAfterId(exchangeId, sinceId, PageRequest.of(0, limit));
+    }
+
+    private ChatMessageFeedDTO toFeed(List<ChatMessageDtoResponse> messages, long sinceId) {
+        long lastId = messages.isEmpty() ? sinceId : messages.get(messages.size() - 1).getId();
+        return new ChatMessageFeedDTO(messages, lastId);
+    }
+
+    private void removeWaiter(Long exchangeId, Waiter waiter) {
+        waiters.computeIfPresent(exchangeId, (id, set) -> {
+            set.remove(waiter);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private record Waiter(long sinceId, int limit, DeferredResult<ChatMessageFeedDTO> result) {
+    }
+}
@@ -0,0 +1,287 @@
+package com.ecoswap.ecoswap.messaging.services;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecoswap.ecoswap.messaging.events.ChatMessagesPersistedEvent;
+import com.ecoswap.ecoswap.messaging.exceptions.ChatQueueFullException;
+import com.ecoswap.ecoswap.messaging.models.dto.ChatMessageDtoRequest;
+import com.ecoswap.ecoswap.messaging.models.dto.ChatMessageDtoResponse;
+
+/**
+ * Persistencia diferida de mensajes de chat: las peticiones solo encolan el mensaje y un único hilo
+ * los inserta por lotes (hasta batch-size mensajes o cada linger-ms) en una sola transacción.
+ * Remitente, receptor e intercambio se escriben por id, sin cargar las entidades.
+ * Con la cola llena se espera hasta offer-timeout-ms y luego se rechaza el mensaje.
+ */
+@Component
+public class ChatMessageWriter implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatMessageWriter.class);
+
+    private static final String INSERT_MESSAGE = "INSERT INTO chat_messages (sender_id, receiver_id, content, "
+            + "timestamp, exchange_id) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ConversationService conversationService;
+    private final BlockingQueue<PendingMessage> queue;
+    private final DistributionSummary batchSizes;
+    private final int batchSize;
+    private final long lingerMs;
+    private final long offerTimeoutMs;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public ChatMessageWriter(JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             ApplicationEventPublisher eventPublisher,
+                             ConversationService conversationService,
+                             MeterRegistry meterRegistry,
+                             @Value("${chat.writer.queue-capacity}") int queueCapacity,
+                             @Value("${chat.writer.batch-size}") int batchSize,
+                             @Value("${chat.writer.linger-ms}") long lingerMs,
+                             @Value("${chat.writer.offer-timeout-ms}") long offerTimeoutMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.conversationService = conversationService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.lingerMs = lingerMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.batchSizes = DistributionSummary.builder("chat.writer.batch.size")
+                .description("Mensajes de chat insertados por lote")
+                .register(meterRegistry);
+        Gauge.builder("chat.writer.queue.depth", queue, BlockingQueue::size)
+                .description("Mensajes de chat pendientes de guardar")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Encola el mensaje; el futuro se completa con el mensaje guardado (con id) cuando su lote se confirma.
+     */
+    public CompletableFuture<ChatMessageDtoResponse> submit(ChatMessageDtoRequest message) {
+        if (message.getSenderId() == null || message.getReceiverId() == null || message.getExchangeId() == null
+                || message.getContent() == null) {
+            throw new IllegalArgumentException("senderId, receiverId, exchangeId y content son obligatorios");
+        }
+        if (!running) {
+            throw new ChatQueueFullException("El chat no está aceptando mensajes en este momento");
+        }
+        PendingMessage pending = new PendingMessage(message, LocalDateTime.now(), new CompletableFuture<>());
+        try {
+            if (!queue.offer(pending, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new ChatQueueFullException("Hay demasiados mensajes pendientes, intenta de nuevo en unos segundos");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ChatQueueFullException("Envío del mensaje interrumpido");
+        }
+        return pending.future;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = new Thread(this::drainLoop, "chat-writer");
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        // Deja de aceptar mensajes y espera a que el hilo guarde lo que queda en la cola
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Se detiene después del servidor web, cuando ya no llegan peticiones nuevas
+        return SmartLifecycle.DEFAULT_PHASE - 2048;
+    }
+
+    private void drainLoop() {
+        List<PendingMessage> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingMessage first = running ? queue.poll(1, TimeUnit.SECONDS) : queue.poll();
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - batch.size());
+                if (running && batch.size() < batchSize && lingerMs > 0) {
+                    // Espera unos milisegundos a que lleguen más mensajes para el mismo commit
+                    Thread.sleep(lingerMs);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                // stop(): se sigue vaciando la cola sin esperas
+                queue.drainTo(batch, batchSize - batch.size());
+            }
+            if (!batch.isEmpty()) {
+                try {
+                    write(batch);
+                } catch (RuntimeException | Error e) {
+                    // El hilo es el único escritor: ningún error puede terminarlo y dejar la cola sin vaciar
+                    log.error("Error inesperado al guardar {} mensajes de chat", batch.size(), e);
+                    batch.forEach(pending -> pending.future.completeExceptionally(e));
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+    }
+
+    private void write(List<PendingMessage> batch) {
+        List<ChatMessageDtoResponse> saved;
+        try {
+            saved = transactionTemplate.execute(status -> insertBatch(batch));
+            // Los futuros se completan después del commit del lote
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(saved.get(i));
+            }
+        } catch (DataAccessException e) {
+            // Un mensaje inválido (p. ej. un id inexistente) revierte el lote: se reintenta uno a uno
+            log.warn("Fallo al guardar un lote de {} mensajes de chat, reintentando uno a uno", batch.size(), e);
+            saved = insertOneByOne(batch);
+        } catch (RuntimeException e) {
+            log.error("Error inesperado al guardar {} mensajes de chat", batch.size(), e);
+            batch.forEach(pending -> pending.future.completeExceptionally(e));
+            return;
+        }
+        batchSizes.record(batch.size());
+        if (!saved.isEmpty()) {
+            try {
+                eventPublisher.publishEvent(new ChatMessagesPersistedEvent(saved));
+            } catch (RuntimeException e) {
+                log.warn("Error al publicar {} mensajes de chat guardados", saved.size(), e);
+            }
+        }
+    }
+
+    private List<ChatMessageDtoResponse> insertBatch(List<PendingMessage> batch) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_MESSAGE, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        bind(ps, batch.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return batch.size();
+                    }
+                }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != batch.size()) {
+            // Sin una clave por fila no se puede saber qué id tiene cada mensaje: se revierte y se guarda uno a uno
+            throw new IncorrectResultSizeDataAccessException("Claves generadas incompletas para el lote de chat",
+                    batch.size(), keys.size());
+        }
+        List<ChatMessageDtoResponse> saved = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            saved.add(batch.get(i).toResponse(toId(keys.get(i))));
+        }
+        // Último mensaje y no leídos de cada conversación, en la misma transacción
+        conversationService.recordMessages(saved);
+        return saved;
+    }
+
+    private List<ChatMessageDtoResponse> insertOneByOne(List<PendingMessage> batch) {
+        List<ChatMessageDtoResponse> saved = new ArrayList<>();
+        for (PendingMessage pending : batch) {
+            try {
+                ChatMessageDtoResponse response = transactionTemplate.execute(status -> {
+                    KeyHolder keyHolder = new GeneratedKeyHolder();
+                    jdbcTemplate.update(con -> {
+                        PreparedStatement ps = con.prepareStatement(INSERT_MESSAGE, Statement.RETURN_GENERATED_KEYS);
+                        bind(ps, pending);
+                        return ps;
+                    }, keyHolder);
+                    if (keyHolder.getKey() == null) {
+                        throw new DataRetrievalFailureException("La base de datos no devolvió el id del mensaje de chat");
+                    }
+                    ChatMessageDtoResponse single = pending.toResponse(keyHolder.getKey().longValue());
+                    conversationService.recordMessages(List.of(single));
+                    return single;
+                });
+                saved.add(response);
+                pending.future.complete(response);
+            } catch (RuntimeException e) {
+                pending.future.completeExceptionally(e);
+            }
+        }
+        return saved;
+    }
+
+    private void bind(PreparedStatement ps, PendingMessage pending) throws SQLException {
+        ps.setLong(1, pending.request.getSenderId());
+        ps.setLong(2, pending.request.getReceiverId());
+        ps.setString(3, pending.request.getContent());
+        ps.setTimestamp(4, Timestamp.valueOf(pending.timestamp));
+        ps.setLong(5, pending.request.getExchangeId());
+    }
+
+    private Long toId(Map<String, Object> key) {
+        Object value = key.size() == 1 ? key.values().iterator().next() : key.get("GENERATED_KEY");
+        if (!(value instanceof Number number)) {
+            throw new DataRetrievalFailureException("Clave generada inválida para un mensaje de chat: " + key);
+        }
+        return number.longValue();
+    }
+
+    private record PendingMessage(ChatMessageDtoRequest request, LocalDateTime timestamp,
+                                  CompletableFuture<ChatMessageDtoResponse> future) {
+
+        ChatMessageDtoResponse toResponse(Long id) {
+            return new ChatMessageDtoResponse(id, request.getSenderId(), request.getReceiverId(),
+                    request.getContent(), timestamp, request.getExchangeId());
+        }
+    }
+}
@@ -1,50 +1,187 @@
 package com.ecoswap.ecoswap.messaging.services;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
-import com.ecoswap.ecoswap.exchange.models.entities.Exchange;
-import com.ecoswap.ecoswap.exchange.repositories.ExchangeRepository;
+import com.ecoswap.ecoswap.configuration.KeysetCursor;
+import com.ecoswap.ecoswap.exchange.repositories.ExchangeParticipantRepository;
+import com.ecoswap.ecoswap.idempotency.exceptions.ResultPendingException;
+import com.ecoswap.ecoswap.messaging.events.ChatMessagesPersistedEvent;
 import com.ecoswap.ecoswap.messaging.models.ChatMessage;
 import com.ecoswap.ecoswap.messaging.models.dto.ChatMessageDtoRequest;
+import com.ecoswap.ecoswap.messaging.models.dto.ChatMessageDtoResponse;
+import com.ecoswap.ecoswap.messaging.models.dto.ChatMessagePageDTO;
 import com.ecoswap.ecoswap.messaging.repositories.ChatMessageRepository;
 import com.ecoswap.ecoswap.user.models.entities.User;
-import com.ecoswap.ecoswap.user.repositories.UserRepository;
 
 @Service
 public class ChatService {
 
+    public static final String USER_CHAT_QUEUE = "/queue/chat";
+    public static final String EXCHANGE_CHAT_TOPIC = "/topic/exchange/%d/chat";
+
+    private static final int DEFAULT_PAGE_SIZE = 30;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final Comparator<ChatMessageDtoResponse> NEWEST_FIRST = Comparator
+            .comparing(ChatMessageDtoResponse::getTimestamp)
+            .thenComparing(ChatMessageDtoResponse::getId)
+            .reversed();
+
     @Autowired
     private ChatMessageRepository chatMessageRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private ChatMessageWriter chatMessageWriter;
+
+    @Autowired
+    private ExchangeParticipantRepository exchangeParticipantRepository;
+
+    // Espera máxima de una petición REST a que su lote se confirme
+    @Value("${chat.writer.reply-timeout-ms}")
+    private long replyTimeoutMs;
 
     @Autowired
-    private ExchangeRepository exchangeRepository;
+    private SimpMessagingTemplate messagingTemplate;
 
-    public void saveMessage(ChatMessageDtoRequest message) {
-        ChatMessage chatMessage = new ChatMessage();
-        User sender = userRepository.findById(message.getSenderId()).get();
-        User receiver = userRepository.findById(message.getReceiverId()).get();
-        Exchange exchange = exchangeRepository.findById(message.getExchangeId()).get();
-        chatMessage.setSender(sender);
-        chatMessage.setReceiver(receiver);
-        chatMessage.setContent(message.getContent());
-        chatMessage.setExchange(exchange);
-        chatMessage.setTimestamp(LocalDateTime.now());
+    /**
+     * El chat de un intercambio solo es visible para los dueños de sus dos productos.
+     */
+    public void checkParticipant(Long exchangeId, Long userId) {
+        if (exchangeId == null || userId == null
+                || !exchangeParticipantRepository.existsByExchange_IdAndUserId(exchangeId, userId)) {
+            throw new AccessDeniedException("No participas en el intercambio " + exchangeId);
+        }
+    }
 
-        chatMessageRepository.save(chatMessage);
+    /**
+     * Valida y encola el mensaje en el ChatMessageWriter; el futuro se completa cuando su lote se confirma.
+     * El remitente es siempre el usuario autenticado, no el que diga el cuerpo.
+     */
+    public CompletableFuture<ChatMessageDtoResponse> submitMessage(ChatMessageDtoRequest message, Long senderId) {
+        if (message.getContent() == null || message.getContent().isBlank()) {
+            throw new IllegalArgumentException("El mensaje no puede estar vacío");
+        }
+        if (message.getReceiverId() == null || message.getExchangeId() == null) {
+            throw new IllegalArgumentException("receiverId y exchangeId son obligatorios");
+        }
+        if (senderId.equals(message.getReceiverId())) {
+            throw new IllegalArgumentException("El receptor debe ser la otra parte del intercambio");
+        }
+        // Ambos deben participar en el intercambio: el receptor es la otra parte
+        checkParticipant(message.getExchangeId(), senderId);
+        checkParticipant(message.getExchangeId(), message.getReceiverId());
+        message.setSenderId(senderId);
+        return chatMessageWriter.submit(message);
+    }
+
+    public ChatMessageDtoResponse saveMessage(ChatMessageDtoRequest message) {
+        CompletableFuture<ChatMessageDtoResponse> saved = submitMessage(message, currentUserId());
+        try {
+            return saved.orTimeout(replyTimeoutMs, TimeUnit.MILLISECONDS).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                // El lote sigue en cola y se guardará igualmente: no es un fallo que el cliente deba reintentar
+                throw new ResultPendingException("El mensaje se está guardando, se entregará en cuanto se confirme", saved);
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Entrega los mensajes ya guardados por la conexión STOMP: a la cola privada del receptor
+     * y al tópico del intercambio, así ningún cliente necesita consultar periódicamente.
+     */
+    @EventListener
+    public void onMessagesPersisted(ChatMessagesPersistedEvent event) {
+        for (ChatMessageDtoResponse message : event.getMessages()) {
+            messagingTemplate.convertAndSendToUser(String.valueOf(message.getReceiverId()), USER_CHAT_QUEUE, message);
+            messagingTemplate.convertAndSend(String.format(EXCHANGE_CHAT_TOPIC, message.getExchangeId()), message);
+        }
     }
 
     public List<ChatMessage> getMessagesBySenderAndReceiver(Long sender, Long receiver) {
         return chatMessageRepository.findMessagesBetweenUsers(sender, receiver);
     }
 
+    /**
+     * Últimos mensajes entre el usuario autenticado y otro usuario anteriores al cursor. Cada sentido de la conversación se lee
+     * con su propio recorrido de idx_chat_sender_receiver_ts y se mezclan en memoria, en lugar de un OR
+     * que obliga a ordenar toda la conversación.
+     */
+    public ChatMessagePageDTO getConversationPage(Long otherUserId, String cursor, Integer size) {
+        Long userId = currentUserId();
+        int pageSize = pageSize(size);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<ChatMessageDtoResponse> messages = new ArrayList<>();
+        if (cursor == null || cursor.isBlank()) {
+            messages.addAll(chatMessageRepository.findLatestSent(userId, otherUserId, limit));
+            messages.addAll(chatMessageRepository.findLatestSent(otherUserId, userId, limit));
+        } else {
+            KeysetCursor<LocalDateTime> position = KeysetCursor.decode(cursor, LocalDateTime::parse);
+            LocalDateTime timestamp = position.value();
+            Long id = position.id();
+            messages.addAll(chatMessageRepository.findLatestSentBefore(userId, otherUserId, timestamp, id, limit));
+            messages.addAll(chatMessageRepository.findLatestSentBefore(otherUserId, userId, timestamp, id, limit));
+        }
+        messages.sort(NEWEST_FIRST);
+        return toPage(messages, pageSize);
+    }
+
+    public ChatMessagePageDTO getExchangeHistoryPage(Long exchangeId, String cursor, Integer size) {
+        checkParticipant(exchangeId, currentUserId());
+        int pageSize = pageSize(size);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<ChatMessageDtoResponse> messages;
+        if (cursor == null || cursor.isBlank()) {
+            messages = chatMessageRepository.findLatestByExchange(exchangeId, limit);
+        } else {
+            KeysetCursor<LocalDateTime> position = KeysetCursor.decode(cursor, LocalDateTime::parse);
+            messages = chatMessageRepository.findLatestByExchangeBefore(exchangeId, position.value(), position.id(), limit);
+        }
+        return toPage(messages, pageSize);
+    }
+
+    public Long currentUserId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        User usuarioAutenticado = (User) auth.getPrincipal();
+        return usuarioAutenticado.getId();
+    }
+
+    private int pageSize(Integer size) {
+        return (size == null || size <= 0) ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    private ChatMessagePageDTO toPage(List<ChatMessageDtoResponse> messages, int pageSize) {
+        // Se pidió un mensaje extra para saber si hay más sin hacer COUNT
+        String nextCursor = null;
+        if (messages.size() > pageSize) {
+            messages = messages.subList(0, pageSize);
+            nextCursor = KeysetCursor.encode(messages.get(pageSize - 1).getTimestamp(), messages.get(pageSize - 1).getId());
+        }
+        return new ChatMessagePageDTO(messages, nextCursor);
+    }
+
 
     public List<ChatMessage> getMessagesByExchangeId(Long receiverId) {
         return chatMessageRepository.findAllByReceiverIdOrderByTimestampDesc(receiverId);
@@ -53,4 +190,4 @@ public class ChatService {
 
     
 
-}
\ No newline at end of file
+}
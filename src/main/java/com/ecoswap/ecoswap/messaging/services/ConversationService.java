@@ -0,0 +1,129 @@
+package com.ecoswap.ecoswap.messaging.services;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ecoswap.ecoswap.messaging.models.dto.ChatMessageDtoResponse;
+import com.ecoswap.ecoswap.messaging.models.dto.ConversationDTO;
+import com.ecoswap.ecoswap.messaging.repositories.ConversationRepository;
+import com.ecoswap.ecoswap.user.models.entities.User;
+
+@Service
+public class ConversationService {
+
+    // Las asignaciones de ON DUPLICATE KEY UPDATE se evalúan en orden: la copia del último mensaje
+    // compara con last_message_id antes de que se actualice en la última línea
+    private static final String UPSERT_CONVERSATION = "INSERT INTO conversations (user_low_id, user_high_id, "
+            + "exchange_id, last_message_id, last_sender_id, last_message_content, last_message_at, unread_low, unread_high) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE "
+            + "unread_low = unread_low + VALUES(unread_low), "
+            + "unread_high = unread_high + VALUES(unread_high), "
+            + "last_sender_id = IF(VALUES(last_message_id) > last_message_id, VALUES(last_sender_id), last_sender_id), "
+            + "last_message_content = IF(VALUES(last_message_id) > last_message_id, VALUES(last_message_content), last_message_content), "
+            + "last_message_at = IF(VALUES(last_message_id) > last_message_id, VALUES(last_message_at), last_message_at), "
+            + "last_message_id = GREATEST(last_message_id, VALUES(last_message_id))";
+
+    private static final int DEFAULT_INBOX_SIZE = 30;
+    private static final int MAX_INBOX_SIZE = 100;
+
+    @Autowired
+    private ConversationRepository conversationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Actualiza las conversaciones de un lote de mensajes ya insertados: una fila por conversación
+     * con el último mensaje del lote y los no leídos que suma al receptor. Debe llamarse dentro de
+     * la transacción que insertó los mensajes.
+     */
+    public void recordMessages(List<ChatMessageDtoResponse> messages) {
+        Collection<ConversationDelta> deltas = aggregate(messages);
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        for (ConversationDelta delta : deltas) {
+            ChatMessageDtoResponse last = delta.last;
+            rows.add(new Object[]{delta.userLowId, delta.userHighId, delta.exchangeId, last.getId(), last.getSenderId(),
+                    last.getContent(), Timestamp.valueOf(last.getTimestamp()), delta.unreadLow, delta.unreadHigh});
+        }
+        jdbcTemplate.batchUpdate(UPSERT_CONVERSATION, rows);
+    }
+
+    // Una entrada por conversación (pareja ordenada + intercambio) con los no leídos que suma el lote
+    static Collection<ConversationDelta> aggregate(List<ChatMessageDtoResponse> messages) {
+        Map<String, ConversationDelta> deltas = new LinkedHashMap<>();
+        for (ChatMessageDtoResponse message : messages) {
+            if (message.getId() == null) {
+                continue;
+            }
+            long low = Math.min(message.getSenderId(), message.getReceiverId());
+            long high = Math.max(message.getSenderId(), message.getReceiverId());
+            ConversationDelta delta = deltas.computeIfAbsent(low + ":" + high + ":" + message.getExchangeId(),
+                    key -> new ConversationDelta(low, high, message.getExchangeId()));
+            delta.add(message);
+        }
+        return deltas.values();
+    }
+
+    public List<ConversationDTO> getInbox(Integer size) {
+        int limit = (size == null || size <= 0) ? DEFAULT_INBOX_SIZE : Math.min(size, MAX_INBOX_SIZE);
+        return conversationRepository.findInbox(currentUserId(), PageRequest.of(0, limit));
+    }
+
+    @Transactional
+    public boolean markRead(Long conversationId) {
+        return conversationRepository.markRead(conversationId, currentUserId()) > 0;
+    }
+
+    private Long currentUserId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        User usuarioAutenticado = (User) auth.getPrincipal();
+        return usuarioAutenticado.getId();
+    }
+
+    @Getter
+    static class ConversationDelta {
+        private final long userLowId;
+        private final long userHighId;
+        private final Long exchangeId;
+        private int unreadLow;
+        private int unreadHigh;
+        private ChatMessageDtoResponse last;
+
+        ConversationDelta(long userLowId, long userHighId, Long exchangeId) {
+            this.userLowId = userLowId;
+            this.userHighId = userHighId;
+            this.exchangeId = exchangeId;
+        }
+
+        void add(ChatMessageDtoResponse message) {
+            // El no leído es para el receptor; un mensaje a uno mismo no cuenta
+            if (!message.getSenderId().equals(message.getReceiverId())) {
+                if (message.getReceiverId() == userLowId) {
+                    unreadLow++;
+                } else {
+                    unreadHigh++;
+                }
+            }
+            if (last == null || message.getId() > last.getId()) {
+                last = message;
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.ecoswap.ecoswap.notification.events;
+
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * Mismo mensaje para varios usuarios. Se publica dentro de una transacción
+ * y las notificaciones se envían solo si esta se confirma.
+ */
+@Getter
+public class NotificationsRequestedEvent {
+    private final List<Long> receiverIds;
+    private final String message;
+    // Para medir la latencia desde la publicación hasta el envío
+    private final long publishedAtNanos = System.nanoTime();
+
+    public NotificationsRequestedEvent(List<Long> receiverIds, String message) {
+        this.receiverIds = receiverIds;
+        this.message = message;
+    }
+}
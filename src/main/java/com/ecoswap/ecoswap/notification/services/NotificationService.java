@@ -1,5 +1,6 @@
 package com.ecoswap.ecoswap.notification.services;
 
+import com.ecoswap.ecoswap.notification.events.NotificationsRequestedEvent;
 import com.ecoswap.ecoswap.notification.models.dto.NotificationDTO;
 import com.ecoswap.ecoswap.user.models.dto.UserDTO;
 import com.ecoswap.ecoswap.user.models.entities.User;
@@ -8,6 +9,8 @@ import java.util.List;
 
 public interface NotificationService {
     void sendNotification(UserDTO receiver, String message);
+    void sendNotifications(List<Long> receiverIds, String message);
+    void onNotificationsRequested(NotificationsRequestedEvent event);
     List<NotificationDTO> getUnreadNotifications(Long userId);
     void markAsRead(Long notificationId);
 
@@ -1,16 +1,27 @@
 package com.ecoswap.ecoswap.notification.services.impl;
 
+import com.ecoswap.ecoswap.notification.events.NotificationsRequestedEvent;
 import com.ecoswap.ecoswap.notification.models.dto.NotificationDTO;
 import com.ecoswap.ecoswap.notification.models.entities.Notification;
 import com.ecoswap.ecoswap.notification.repositories.NotificationRepository;
 import com.ecoswap.ecoswap.notification.services.NotificationService;
 import com.ecoswap.ecoswap.user.models.dto.UserDTO;
 import com.ecoswap.ecoswap.user.models.entities.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import jakarta.transaction.Transactional;
+
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,6 +33,14 @@ public class NotificationServiceImpl implements NotificationService {
     @Autowired
     private SimpMessagingTemplate messagingTemplate;  // WebSockets
 
+    private final Timer dispatchLatency;
+
+    public NotificationServiceImpl(MeterRegistry meterRegistry) {
+        this.dispatchLatency = Timer.builder("notifications.dispatch.latency")
+                .description("Tiempo desde que se publica la notificación hasta que se entrega al broker")
+                .register(meterRegistry);
+    }
+
     @Override
     public void sendNotification(UserDTO receiver, String message) {
         User user = new User();
@@ -39,8 +58,60 @@ public class NotificationServiceImpl implements NotificationService {
         notificationRepository.save(notification);
 
         NotificationDTO notificationDTO = new NotificationDTO(notification.getId(), notification.getReceiver().getId(), message, false, notification.getCreatedAt());
-        messagingTemplate.convertAndSend("/topic/notifications/" + receiver.getId(), notificationDTO);
-        System.out.println("📤 Mensaje enviado a /topic/notifications: " + message);
+        afterCommit(() -> messagingTemplate.convertAndSend("/topic/notifications/" + receiver.getId(), notificationDTO));
+    }
+
+    @Override
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public void sendNotifications(List<Long> receiverIds, String message) {
+        List<Notification> notifications = new ArrayList<>();
+        for (Long receiverId : receiverIds) {
+            User user = new User();
+            user.setId(receiverId);
+
+            Notification notification = new Notification();
+            notification.setReceiver(user);
+            notification.setMessage(message);
+            notification.setRead(false);
+            notifications.add(notification);
+        }
+
+        notificationRepository.saveAll(notifications);
+
+        List<NotificationDTO> saved = new ArrayList<>(notifications.size());
+        for (Notification notification : notifications) {
+            saved.add(new NotificationDTO(notification.getId(), notification.getReceiver().getId(), message, false,
+                    notification.getCreatedAt()));
+        }
+        afterCommit(() -> saved.forEach(notificationDTO ->
+                messagingTemplate.convertAndSend("/topic/notifications/" + notificationDTO.getReceiverId(), notificationDTO)));
+    }
+
+    // Solo se notifica lo que quedó confirmado, y fuera del hilo de la petición
+    @Override
+    @Async("notificationExecutor")
+    @TransactionalEventListener
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public void onNotificationsRequested(NotificationsRequestedEvent event) {
+        if (!event.getReceiverIds().isEmpty()) {
+            sendNotifications(event.getReceiverIds(), event.getMessage());
+        }
+        // Se registra después del envío, que también espera al commit
+        afterCommit(() -> dispatchLatency.record(System.nanoTime() - event.getPublishedAtNanos(), TimeUnit.NANOSECONDS));
+    }
+
+    // Un cliente nunca debe recibir el id de una notificación que se revirtió
+    private void afterCommit(Runnable send) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send.run();
+                }
+            });
+        } else {
+            send.run();
+        }
     }
 
     @Override
@@ -0,0 +1,62 @@
+package com.ecoswap.ecoswap.product.controllers;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+
+import com.ecoswap.ecoswap.product.models.ImageVariant;
+import com.ecoswap.ecoswap.product.services.ImageServingService;
+import com.ecoswap.ecoswap.product.services.ImageStorageService;
+import com.ecoswap.ecoswap.product.services.ImageVariantService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+@Controller
+public class ImageController {
+
+    // Nombres generados por ImageStorageService: el SHA-256 del contenido en hexadecimal
+    private static final Pattern CONTENT_HASH = Pattern.compile("[0-9a-f]{64}");
+
+    @Autowired
+    private ImageStorageService imageStorageService;
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private ImageServingService imageServingService;
+
+    @GetMapping("/images/{fileName:.+}")
+    public void getImage(@PathVariable String fileName, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        int extensionStart = fileName.lastIndexOf('.');
+        String baseName = extensionStart > 0 ? fileName.substring(0, extensionStart) : fileName;
+
+        imageServingService.serve(imageStorageService.loadOriginal(fileName), contentHash(baseName, null),
+                request, response);
+    }
+
+    @GetMapping("/images/variants/{size}/{baseName}.jpg")
+    public void getImageVariant(@PathVariable int size, @PathVariable String baseName,
+                                HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ImageVariant variant = ImageVariant.fromSize(size);
+        Path variantPath = variant != null ? imageVariantService.resolveVariant(variant, baseName) : null;
+
+        imageServingService.serve(variantPath != null ? new FileSystemResource(variantPath) : null,
+                contentHash(baseName, variant), request, response);
+    }
+
+    private String contentHash(String baseName, ImageVariant variant) {
+        if (!CONTENT_HASH.matcher(baseName).matches()) {
+            return null;
+        }
+        return variant != null ? baseName + "-" + variant.getSize() : baseName;
+    }
+}
@@ -1,17 +1,26 @@
 package com.ecoswap.ecoswap.product.controllers;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 
+import com.ecoswap.ecoswap.product.models.dto.ProductChangesDTO;
+import com.ecoswap.ecoswap.product.models.dto.ProductImportReportDTO;
 import com.ecoswap.ecoswap.product.models.dto.ProductResponseDTO;
 import com.ecoswap.ecoswap.product.models.entities.Product;
 import jakarta.validation.Valid;
 import org.apache.coyote.Response;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import com.ecoswap.ecoswap.product.models.dto.ProductDTO;
+import com.ecoswap.ecoswap.product.services.CatalogVersionService;
+import com.ecoswap.ecoswap.product.services.ProductImportService;
 import com.ecoswap.ecoswap.product.services.ProductService;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -22,12 +31,31 @@ public class ProductController {
     @Autowired
     public ProductService productService;
 
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
     @GetMapping("product")
     public ResponseEntity<ProductResponseDTO> findAllProducts(
         @RequestParam(required = false) Integer page,
-        @RequestParam(required = false) Integer size
+        @RequestParam(required = false) Integer size,
+        @RequestParam(required = false) String cursor,
+        WebRequest request
     ) {
-        return ResponseEntity.ok(productService.findAll(page, size));
+        // Si el catálogo no cambió se responde 304 sin consultar la base de datos
+        if (request.checkNotModified(catalogVersionService.getCatalogEtag())) {
+            return null;
+        }
+        // no-cache: el cliente guarda la respuesta pero la revalida con If-None-Match
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(productService.findAll(page, size, cursor));
+    }
+
+    @GetMapping("/product/changes")
+    public ResponseEntity<ProductChangesDTO> getProductChanges(@RequestParam(required = false) String cursor,
+                                                               @RequestParam(required = false) Integer limit){
+        return ResponseEntity.ok(productService.getProductChanges(cursor, limit));
     }
 
     @GetMapping("/product/{id}")
@@ -38,8 +66,12 @@ public class ProductController {
     @GetMapping("/product/category/{category}")
     public ResponseEntity<ProductResponseDTO> getProductByCategory(@PathVariable String category,
                                                                  @RequestParam(defaultValue = "0") int page,
-                                                                 @RequestParam(defaultValue = "9") int size){
-        return ResponseEntity.ok(productService.getProductsByCategory(category, page, size));
+                                                                 @RequestParam(defaultValue = "9") int size,
+                                                                 WebRequest request){
+        if (request.checkNotModified(catalogVersionService.getCategoryEtag(category))) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(productService.getProductsByCategory(category, page, size));
     }
 
     @GetMapping("/product/user")
@@ -53,8 +85,11 @@ public class ProductController {
     }
 
     @GetMapping("/product/recent")
-    public ResponseEntity<List<ProductDTO>> getRecentlyProducts(){
-        return ResponseEntity.ok(productService.getRecentlyProducts());
+    public ResponseEntity<List<ProductDTO>> getRecentlyProducts(WebRequest request){
+        if (request.checkNotModified(catalogVersionService.getCatalogEtag())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(productService.getRecentlyProducts());
     }
 
     @PostMapping("/product/create")
@@ -62,6 +97,12 @@ public class ProductController {
         return ResponseEntity.status(HttpStatus.CREATED).body(productService.createProduct(productDTO, image));
     }
 
+    @PostMapping(value = "/product/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ProductImportReportDTO> importProducts(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                                 InputStream body){
+        return ResponseEntity.ok(productImportService.importProducts(body, contentType));
+    }
+
     @PutMapping("/product/{id}")
     public ResponseEntity<ProductDTO> updateProduct(@PathVariable Long id,@Valid @RequestBody ProductDTO productDTO){
         return ResponseEntity.status(HttpStatus.ACCEPTED).body(productService.updateProductById(id,productDTO));
@@ -77,4 +118,9 @@ public class ProductController {
         return ResponseEntity.ok(productService.countProduct());
     }
 
+    @GetMapping("/products/counts/status")
+    public ResponseEntity<Map<String, Long>> countProductsByStatus(){
+        return ResponseEntity.ok(productService.countProductsByStatus());
+    }
+
 }
@@ -0,0 +1,45 @@
+package com.ecoswap.ecoswap.product.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Versiones redimensionadas que se generan para cada imagen de producto.
+ * Se guardan como JPEG en variants/{tamaño}/{nombre base}.jpg dentro de la carpeta de imágenes.
+ */
+@Getter
+@AllArgsConstructor
+public enum ImageVariant {
+    THUMBNAIL(200),
+    MEDIUM(800);
+
+    private final int size;
+
+    public static ImageVariant fromSize(int size) {
+        for (ImageVariant variant : values()) {
+            if (variant.size == size) {
+                return variant;
+            }
+        }
+        return null;
+    }
+
+    public String getRelativePath(String baseName) {
+        return "variants/" + size + "/" + baseName + ".jpg";
+    }
+
+    /**
+     * Construye la URL de la variante a partir de la URL pública de la imagen original.
+     */
+    public String urlFor(String imageUrl) {
+        if (imageUrl == null || !imageUrl.contains("/images/")) {
+            return null;
+        }
+        int nameStart = imageUrl.lastIndexOf('/') + 1;
+        int extensionStart = imageUrl.lastIndexOf('.');
+        String baseName = extensionStart > nameStart
+                ? imageUrl.substring(nameStart, extensionStart)
+                : imageUrl.substring(nameStart);
+        return imageUrl.substring(0, nameStart) + getRelativePath(baseName);
+    }
+}
@@ -0,0 +1,20 @@
+package com.ecoswap.ecoswap.product.models.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+public class ProductChangesDTO {
+    // Productos activos creados o modificados desde el cursor
+    private List<ProductDTO> upserts;
+    // Ids de productos que pasaron a inactivo: el cliente debe borrarlos de su copia local
+    private List<Long> removed;
+    // Se guarda en el cliente y se envía en la siguiente sincronización
+    private String nextCursor;
+    private boolean hasMore;
+}
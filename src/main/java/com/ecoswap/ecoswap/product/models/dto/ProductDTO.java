@@ -2,6 +2,7 @@ package com.ecoswap.ecoswap.product.models.dto;
 
 import java.time.LocalDate;
 
+import com.ecoswap.ecoswap.product.models.ImageVariant;
 import com.ecoswap.ecoswap.user.models.dto.UserDTO;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -29,4 +30,13 @@ public class ProductDTO {
     private String imageProduct;
     private LocalDate releaseDate;
     private UserDTO user;
+
+    // Variantes redimensionadas, derivadas de la URL de la imagen original
+    public String getThumbnailImage() {
+        return ImageVariant.THUMBNAIL.urlFor(imageProduct);
+    }
+
+    public String getMediumImage() {
+        return ImageVariant.MEDIUM.urlFor(imageProduct);
+    }
 }
@@ -0,0 +1,13 @@
+package com.ecoswap.ecoswap.product.models.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductImportErrorDTO {
+    private long row;
+    private String message;
+}
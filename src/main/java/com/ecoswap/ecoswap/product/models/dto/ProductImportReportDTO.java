@@ -0,0 +1,18 @@
+package com.ecoswap.ecoswap.product.models.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductImportReportDTO {
+    private long totalRows;
+    private long importedRows;
+    private long failedRows;
+    // Se reportan como máximo los primeros errores, failedRows tiene el total
+    private List<ProductImportErrorDTO> errors;
+}
@@ -1,5 +1,6 @@
 package com.ecoswap.ecoswap.product.models.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -9,8 +10,15 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class ProductResponseDTO {
     private List<ProductDTO> products;
-    private long totalPages;
+    private Long totalPages;
+    // Token opaco para pedir la siguiente página en modo cursor, null si no hay más
+    private String nextCursor;
+
+    public ProductResponseDTO(List<ProductDTO> products, long totalPages) {
+        this(products, totalPages, null);
+    }
 
 }
@@ -0,0 +1,45 @@
+package com.ecoswap.ecoswap.product.models.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import com.ecoswap.ecoswap.user.models.dto.UserDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Fila plana de lectura para los listados de productos. Se construye
+ * directamente en la consulta JPQL (producto + propietario en un solo JOIN),
+ * así que no se hidrata la entidad Product ni su asociación User.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductViewDTO {
+    private Long id;
+    private String title;
+    private String description;
+    private String category;
+    private String conditionProduct;
+    private String imageProduct;
+    private LocalDate releaseDate;
+    private String productStatus;
+    private Long userId;
+    private String userName;
+    private String userEmail;
+    private String userAddress;
+    private String userCellphoneNumber;
+    private LocalDateTime updatedAt;
+
+    public ProductDTO toProductDTO() {
+        return new ProductDTO(
+                id,
+                title,
+                description,
+                category,
+                conditionProduct,
+                imageProduct,
+                releaseDate,
+                new UserDTO(userId, userName, userEmail, userAddress, userCellphoneNumber)
+        );
+    }
+}
@@ -1,11 +1,13 @@
 package com.ecoswap.ecoswap.product.models.entities;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import com.ecoswap.ecoswap.user.models.entities.User;
 
@@ -19,6 +21,12 @@ import lombok.Setter;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_product_status_release", columnList = "product_status, release_date"),
+        @Index(name = "idx_product_category_status_release", columnList = "category, product_status, release_date"),
+        @Index(name = "idx_product_user_status", columnList = "user_id, product_status"),
+        @Index(name = "idx_product_updated", columnList = "updated_at, id")
+})
 public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -35,6 +43,11 @@ public class Product {
     private String imageProduct;
     private LocalDate releaseDate;
 
+    // Posición del producto en el feed de cambios; el valor por defecto cubre las filas de import.sql
+    @UpdateTimestamp
+    @Column(columnDefinition = "datetime(6) default current_timestamp(6)")
+    private LocalDateTime updatedAt;
+
     @ManyToOne
     @JoinColumn(name = "user_id")
     @OnDelete(action = OnDeleteAction.CASCADE)
@@ -1,24 +1,96 @@
 package com.ecoswap.ecoswap.product.repositories;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
-import com.ecoswap.ecoswap.user.models.dto.UserDTO;
-import com.ecoswap.ecoswap.user.models.entities.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import com.ecoswap.ecoswap.product.models.dto.ProductDTO;
+import com.ecoswap.ecoswap.counter.models.dto.StatusCountDTO;
+import com.ecoswap.ecoswap.product.models.dto.ProductViewDTO;
 import com.ecoswap.ecoswap.product.models.entities.Product;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long>{
-    List<Product> findTop5ByProductStatusOrderByReleaseDateDesc(String productStatus);
-    Page<Product> findByCategory(String category, Pageable pageable);
-    Page<Product> findByProductStatus(String productStatus, Pageable pageable);
-    List<Product> findByUser(User user);
+
+    // Proyección de solo lectura: producto y propietario en una sola consulta
+    String PRODUCT_VIEW_SELECT = "SELECT new com.ecoswap.ecoswap.product.models.dto.ProductViewDTO(" +
+            "p.id, p.title, p.description, p.category, p.conditionProduct, p.imageProduct, p.releaseDate, " +
+            "p.productStatus, u.id, u.name, u.email, u.address, u.cellphoneNumber, p.updatedAt) " +
+            "FROM Product p JOIN p.user u ";
+
     List<Product> findByProductStatus(String productStatus);
-    List<Product> findByUserAndProductStatus(User user, String productStatus);
+
+    @Query("SELECT p.user.id FROM Product p WHERE p.id = :id")
+    Long findOwnerIdById(@Param("id") Long id);
+
+    @Query("SELECT p.productStatus AS status, COUNT(p) AS total FROM Product p GROUP BY p.productStatus")
+    List<StatusCountDTO> countGroupByProductStatus();
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Product p SET p.productStatus = :productStatus, p.updatedAt = :updatedAt " +
+            "WHERE p.id IN :ids AND p.productStatus <> :productStatus")
+    int updateProductStatus(@Param("ids") List<Long> ids, @Param("productStatus") String productStatus,
+                            @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.productStatus = 'inactivo', p.updatedAt = :updatedAt WHERE p.productStatus <> 'inactivo' AND (" +
+            "p.id IN (SELECT e.productFrom.id FROM Exchange e WHERE e.status = 'completado') OR " +
+            "p.id IN (SELECT e.productTo.id FROM Exchange e WHERE e.status = 'completado'))")
+    int deactivateProductsFromCompletedExchanges(@Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.productStatus = 'inactivo', p.updatedAt = :updatedAt WHERE p.productStatus <> 'inactivo' AND (" +
+            "p.id IN (SELECT e.productFrom.id FROM Exchange e WHERE e.status = 'completado' AND e.completedAt >= :since) OR " +
+            "p.id IN (SELECT e.productTo.id FROM Exchange e WHERE e.status = 'completado' AND e.completedAt >= :since))")
+    int deactivateProductsFromExchangesCompletedSince(@Param("since") LocalDateTime since,
+                                                      @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Query(value = PRODUCT_VIEW_SELECT + "WHERE p.productStatus = :productStatus ORDER BY p.releaseDate DESC, p.id DESC",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.productStatus = :productStatus")
+    Page<ProductViewDTO> findViewsByProductStatus(@Param("productStatus") String productStatus, Pageable pageable);
+
+    // Paginación por cursor: al devolver List en lugar de Page no se ejecuta el COUNT
+    @Query(PRODUCT_VIEW_SELECT + "WHERE p.productStatus = :productStatus ORDER BY p.releaseDate DESC, p.id DESC")
+    List<ProductViewDTO> findViewsByProductStatusOrderByReleaseDate(@Param("productStatus") String productStatus,
+                                                                    Pageable pageable);
+
+    @Query(PRODUCT_VIEW_SELECT + "WHERE p.productStatus = :productStatus " +
+            "AND (p.releaseDate < :releaseDate OR (p.releaseDate = :releaseDate AND p.id < :id)) " +
+            "ORDER BY p.releaseDate DESC, p.id DESC")
+    List<ProductViewDTO> findViewsByProductStatusAfterCursor(@Param("productStatus") String productStatus,
+                                                            @Param("releaseDate") LocalDate releaseDate,
+                                                            @Param("id") Long id,
+                                                            Pageable pageable);
+
+    // Resuelto con el índice (category, product_status, release_date)
+    @Query(value = PRODUCT_VIEW_SELECT + "WHERE p.category = :category AND p.productStatus = :productStatus " +
+            "ORDER BY p.releaseDate DESC, p.id DESC",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.category = :category AND p.productStatus = :productStatus")
+    Page<ProductViewDTO> findByCategoryAndProductStatus(@Param("category") String category,
+                                                       @Param("productStatus") String productStatus,
+                                                       Pageable pageable);
+
+    // Feed de cambios: todos los estados, en orden de modificación y resuelto con el índice (updated_at, id)
+    @Query(PRODUCT_VIEW_SELECT + "WHERE p.updatedAt < :until ORDER BY p.updatedAt, p.id")
+    List<ProductViewDTO> findChanges(@Param("until") LocalDateTime until, Pageable pageable);
+
+    @Query(PRODUCT_VIEW_SELECT + "WHERE p.updatedAt < :until " +
+            "AND (p.updatedAt > :updatedAt OR (p.updatedAt = :updatedAt AND p.id > :id)) " +
+            "ORDER BY p.updatedAt, p.id")
+    List<ProductViewDTO> findChangesAfterCursor(@Param("updatedAt") LocalDateTime updatedAt,
+                                                @Param("id") Long id,
+                                                @Param("until") LocalDateTime until,
+                                                Pageable pageable);
+
+    @Query(PRODUCT_VIEW_SELECT + "WHERE u.id = :userId AND p.productStatus = :productStatus")
+    List<ProductViewDTO> findViewsByUserIdAndProductStatus(@Param("userId") Long userId,
+                                                          @Param("productStatus") String productStatus);
 
 }
@@ -0,0 +1,24 @@
+package com.ecoswap.ecoswap.product.services;
+
+public interface CatalogVersionService {
+    /**
+     * ETag del listado general (/product, /product/recent); cambia con cualquier mutación del catálogo.
+     */
+    String getCatalogEtag();
+
+    /**
+     * ETag del listado de una categoría; solo cambia con mutaciones de esa categoría o globales.
+     */
+    String getCategoryEtag(String category);
+
+    /**
+     * Registra una mutación de productos de la categoría indicada.
+     * Dentro de una transacción el cambio de versión se aplica tras el commit.
+     */
+    void bumpCategory(String category);
+
+    /**
+     * Registra una mutación que puede afectar a cualquier categoría (actualizaciones masivas).
+     */
+    void bumpAll();
+}
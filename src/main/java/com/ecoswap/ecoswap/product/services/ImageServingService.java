@@ -0,0 +1,17 @@
+package com.ecoswap.ecoswap.product.services;
+
+import java.io.IOException;
+
+import org.springframework.core.io.Resource;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+public interface ImageServingService {
+    /**
+     * Escribe la imagen con cabeceras de caché, ETag fuerte, respuesta 304 y soporte de rangos.
+     * Si contentHash no es null la URL se considera inmutable.
+     */
+    void serve(Resource image, String contentHash, HttpServletRequest request, HttpServletResponse response)
+            throws IOException;
+}
@@ -0,0 +1,14 @@
+package com.ecoswap.ecoswap.product.services;
+
+import org.springframework.core.io.Resource;
+import org.springframework.web.multipart.MultipartFile;
+
+public interface ImageStorageService {
+    /**
+     * Guarda la imagen con un nombre derivado de su SHA-256 y devuelve ese nombre.
+     * Si ya existe una imagen con el mismo contenido no se vuelve a escribir.
+     */
+    String store(MultipartFile image);
+    String getPublicUrl(String fileName);
+    Resource loadOriginal(String fileName);
+}
@@ -0,0 +1,10 @@
+package com.ecoswap.ecoswap.product.services;
+
+import java.nio.file.Path;
+
+import com.ecoswap.ecoswap.product.models.ImageVariant;
+
+public interface ImageVariantService {
+    void generateVariantsAsync(String fileName);
+    Path resolveVariant(ImageVariant variant, String baseName);
+}
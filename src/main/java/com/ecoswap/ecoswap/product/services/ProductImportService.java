@@ -0,0 +1,13 @@
+package com.ecoswap.ecoswap.product.services;
+
+import java.io.InputStream;
+
+import com.ecoswap.ecoswap.product.models.dto.ProductImportReportDTO;
+
+public interface ProductImportService {
+    /**
+     * Importa productos desde CSV (con cabecera) o NDJSON leyendo el cuerpo por líneas.
+     * Las filas válidas se insertan por lotes JDBC y cada bloque se confirma por separado.
+     */
+    ProductImportReportDTO importProducts(InputStream body, String contentType);
+}
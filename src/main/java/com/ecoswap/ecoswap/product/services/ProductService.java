@@ -1,14 +1,17 @@
 package com.ecoswap.ecoswap.product.services;
 
 import java.util.List;
+import java.util.Map;
 
+import com.ecoswap.ecoswap.exchange.events.ExchangeCompletedEvent;
+import com.ecoswap.ecoswap.product.models.dto.ProductChangesDTO;
 import com.ecoswap.ecoswap.product.models.dto.ProductDTO;
 import com.ecoswap.ecoswap.product.models.dto.ProductResponseDTO;
 import com.ecoswap.ecoswap.user.models.dto.UserDTO;
 import org.springframework.web.multipart.MultipartFile;
 
 public interface ProductService {
-    ProductResponseDTO findAll(Integer page, Integer size);
+    ProductResponseDTO findAll(Integer page, Integer size, String cursor);
     ProductDTO createProduct(ProductDTO productDTO, MultipartFile image);
     ProductDTO updateProductById(Long id, ProductDTO productDTO);
     void deleteProduct(Long id);
@@ -19,8 +22,11 @@ public interface ProductService {
     List<ProductDTO> getActiveProductsByUserId(Long userId);
     List<ProductDTO> getRecentlyProducts();
     Long countProduct();
+    Map<String, Long> countProductsByStatus();
+    ProductChangesDTO getProductChanges(String cursor, Integer limit);
 
     void markProductsAsInactiveFromCompletedExchanges();
+    void deactivateExchangedProducts(ExchangeCompletedEvent event);
     String getActiveProductsSummary();
 
 }
@@ -0,0 +1,69 @@
+package com.ecoswap.ecoswap.product.services.impl;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.ecoswap.ecoswap.product.services.CatalogVersionService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Service
+public class CatalogVersionServiceImpl implements CatalogVersionService {
+
+    // Distingue las versiones de cada arranque: los contadores empiezan en cero al reiniciar
+    private final String bootId = Long.toString(UUID.randomUUID().getMostSignificantBits() & Long.MAX_VALUE, 36);
+
+    // Versión de todo el catálogo: sube con cualquier mutación
+    private final AtomicLong catalogVersion = new AtomicLong();
+
+    // Sube con las mutaciones que no se pueden atribuir a una categoría e invalida todas
+    private final AtomicLong bulkEpoch = new AtomicLong();
+
+    private final ConcurrentMap<String, AtomicLong> categoryVersions = new ConcurrentHashMap<>();
+
+    @Override
+    public String getCatalogEtag() {
+        return "\"" + bootId + "-" + catalogVersion.get() + "\"";
+    }
+
+    @Override
+    public String getCategoryEtag(String category) {
+        AtomicLong version = categoryVersions.get(category);
+        return "\"" + bootId + "-" + bulkEpoch.get() + "." + (version == null ? 0 : version.get()) + "\"";
+    }
+
+    @Override
+    public void bumpCategory(String category) {
+        afterCommit(() -> {
+            if (category != null) {
+                categoryVersions.computeIfAbsent(category, key -> new AtomicLong()).incrementAndGet();
+            }
+            catalogVersion.incrementAndGet();
+        });
+    }
+
+    @Override
+    public void bumpAll() {
+        afterCommit(() -> {
+            bulkEpoch.incrementAndGet();
+            catalogVersion.incrementAndGet();
+        });
+    }
+
+    // Subir la versión antes del commit permitiría cachear en el cliente datos antiguos con la ETag nueva
+    private void afterCommit(Runnable bump) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump.run();
+                }
+            });
+        } else {
+            bump.run();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.ecoswap.ecoswap.product.services.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.ecoswap.ecoswap.product.exceptions.FileFormatException;
+import com.ecoswap.ecoswap.product.exceptions.ProductCreationException;
+import com.ecoswap.ecoswap.product.services.ImageStorageService;
+
+@Service
+public class ImageStorageServiceImpl implements ImageStorageService {
+
+    private static final byte[] JPEG_SIGNATURE = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final int HEADER_LENGTH = 8;
+    private static final Pattern SAFE_FILE_NAME = Pattern.compile("[A-Za-z0-9_-]+\\.(jpg|jpeg|png)");
+
+    @Value("${image.storage.path}")
+    private String storageFolderPath;
+
+    @Value("${image.storage.max-size-bytes}")
+    private long maxSizeBytes;
+
+    @Value("${image.public-base-url}")
+    private String publicBaseUrl;
+
+    @Override
+    public String store(MultipartFile image) {
+        if (image.getSize() > maxSizeBytes) {
+            throw new FileFormatException("La imagen supera el tamaño máximo permitido de " + maxSizeBytes + " bytes");
+        }
+
+        Path folder = Paths.get(storageFolderPath);
+        Path tempFile = null;
+        try {
+            Files.createDirectories(folder);
+            tempFile = Files.createTempFile(folder, "upload-", ".tmp");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+            String extension;
+            // La imagen se copia a disco por bloques mientras se calcula el hash, sin cargarla completa en memoria
+            try (InputStream in = new DigestInputStream(image.getInputStream(), digest);
+                 FileChannel out = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                byte[] header = in.readNBytes(HEADER_LENGTH);
+                extension = detectExtension(header);
+                if (extension == null) {
+                    throw new FileFormatException("Formato de imagen no permitido. Por favor suba una imagen jpg, png o jpeg");
+                }
+                out.write(ByteBuffer.wrap(header));
+
+                ReadableByteChannel source = Channels.newChannel(in);
+                long position = header.length;
+                long transferred;
+                // Se permite leer un byte más del límite para detectar archivos demasiado grandes
+                while (position <= maxSizeBytes
+                        && (transferred = out.transferFrom(source, position, maxSizeBytes - position + 1)) > 0) {
+                    position += transferred;
+                }
+                if (position > maxSizeBytes) {
+                    throw new FileFormatException("La imagen supera el tamaño máximo permitido de " + maxSizeBytes + " bytes");
+                }
+            }
+
+            String fileName = HexFormat.of().formatHex(digest.digest()) + "." + extension;
+            Path target = folder.resolve(fileName);
+            if (!Files.exists(target)) {
+                try {
+                    Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    // Otra subida con el mismo contenido ganó la carrera, el archivo ya está guardado
+                }
+            }
+            return fileName;
+
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new ProductCreationException("Error al guardar la imagen: " + e.getMessage());
+        } finally {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException ignored) {
+                    // El temporal huérfano no afecta a la imagen ya guardada
+                }
+            }
+        }
+    }
+
+    @Override
+    public String getPublicUrl(String fileName) {
+        return publicBaseUrl + fileName;
+    }
+
+    @Override
+    public Resource loadOriginal(String fileName) {
+        if (!SAFE_FILE_NAME.matcher(fileName).matches()) {
+            return null;
+        }
+        Resource stored = new FileSystemResource(Paths.get(storageFolderPath, fileName));
+        if (stored.exists()) {
+            return stored;
+        }
+        // Imágenes de los datos iniciales empaquetadas con la aplicación
+        Resource bundled = new ClassPathResource("static/images/" + fileName);
+        return bundled.exists() ? bundled : null;
+    }
+
+    private String detectExtension(byte[] header) {
+        if (startsWith(header, PNG_SIGNATURE)) {
+            return "png";
+        }
+        if (startsWith(header, JPEG_SIGNATURE)) {
+            return "jpg";
+        }
+        return null;
+    }
+
+    private boolean startsWith(byte[] header, byte[] signature) {
+        return header.length >= signature.length
+                && Arrays.equals(header, 0, signature.length, signature, 0, signature.length);
+    }
+}
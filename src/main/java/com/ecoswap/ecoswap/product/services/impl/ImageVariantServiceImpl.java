@@ -0,0 +1,208 @@
+package com.ecoswap.ecoswap.product.services.impl;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import com.ecoswap.ecoswap.product.models.ImageVariant;
+import com.ecoswap.ecoswap.product.services.ImageVariantService;
+
+@Service
+public class ImageVariantServiceImpl implements ImageVariantService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageVariantServiceImpl.class);
+    private static final List<String> ORIGINAL_EXTENSIONS = List.of("jpg", "jpeg", "png");
+    private static final float JPEG_QUALITY = 0.8f;
+    private static final Pattern SAFE_BASE_NAME = Pattern.compile("[A-Za-z0-9_-]+");
+
+    @Value("${image.storage.path}")
+    private String storageFolderPath;
+
+    // Generaciones en curso por imagen: las peticiones simultáneas esperan a la misma en vez de decodificar otra vez
+    private final ConcurrentMap<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    @Override
+    @Async("imageProcessingExecutor")
+    public void generateVariantsAsync(String fileName) {
+        int extensionStart = fileName.lastIndexOf('.');
+        String baseName = extensionStart > 0 ? fileName.substring(0, extensionStart) : fileName;
+        try {
+            generateVariantsOnce(baseName);
+        } catch (IOException e) {
+            log.warn("No se pudieron generar las variantes de {}: {}", fileName, e.getMessage());
+        }
+    }
+
+    @Override
+    public Path resolveVariant(ImageVariant variant, String baseName) {
+        if (!SAFE_BASE_NAME.matcher(baseName).matches()) {
+            return null;
+        }
+        Path variantPath = Paths.get(storageFolderPath).resolve(variant.getRelativePath(baseName));
+        if (Files.exists(variantPath)) {
+            return variantPath;
+        }
+        // La variante no existe todavía (cola llena, error o imagen anterior): se genera al vuelo
+        try {
+            generateVariantsOnce(baseName);
+        } catch (IOException e) {
+            log.warn("No se pudo regenerar la variante {} de {}: {}", variant, baseName, e.getMessage());
+        }
+        return Files.exists(variantPath) ? variantPath : null;
+    }
+
+    private void generateVariantsOnce(String baseName) throws IOException {
+        CompletableFuture<Void> generation = new CompletableFuture<>();
+        CompletableFuture<Void> running = inFlight.putIfAbsent(baseName, generation);
+        if (running != null) {
+            try {
+                running.join();
+            } catch (CompletionException e) {
+                // El error ya lo registró quien generaba; el llamador comprueba si existe la variante
+            }
+            return;
+        }
+        try {
+            generateVariants(baseName);
+            generation.complete(null);
+        } catch (IOException | RuntimeException e) {
+            generation.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(baseName, generation);
+        }
+    }
+
+    private void generateVariants(String baseName) throws IOException {
+        Resource original = findOriginal(baseName);
+        if (original == null) {
+            return;
+        }
+
+        int largestSize = 0;
+        for (ImageVariant variant : ImageVariant.values()) {
+            largestSize = Math.max(largestSize, variant.getSize());
+        }
+        BufferedImage source = readSubsampled(original, largestSize);
+        if (source == null) {
+            return;
+        }
+
+        for (ImageVariant variant : ImageVariant.values()) {
+            Path target = Paths.get(storageFolderPath).resolve(variant.getRelativePath(baseName));
+            if (!Files.exists(target)) {
+                writeJpeg(resize(source, variant.getSize()), target);
+            }
+        }
+    }
+
+    private Resource findOriginal(String baseName) {
+        for (String extension : ORIGINAL_EXTENSIONS) {
+            Resource file = new FileSystemResource(Paths.get(storageFolderPath, baseName + "." + extension));
+            if (file.exists()) {
+                return file;
+            }
+            Resource bundled = new ClassPathResource("static/images/" + baseName + "." + extension);
+            if (bundled.exists()) {
+                return bundled;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Decodifica la imagen saltando píxeles cuando es mucho mayor que la variante más grande,
+     * así una foto de varios megapíxeles no se carga entera en memoria.
+     */
+    private BufferedImage readSubsampled(Resource original, int targetSize) throws IOException {
+        try (InputStream in = original.getInputStream();
+             ImageInputStream imageInput = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInput);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInput, true, true);
+                int longestSide = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int subsampling = Math.max(1, longestSide / (targetSize * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage resize(BufferedImage source, int maxSize) {
+        double scale = Math.min(1.0, (double) maxSize / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        // JPEG no admite transparencia, se pinta sobre fondo blanco
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = resized.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return resized;
+    }
+
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path tempFile = Files.createTempFile(target.getParent(), "variant-", ".tmp");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        try {
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(tempFile.toFile())) {
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(JPEG_QUALITY);
+                writer.setOutput(output);
+                writer.write(null, new IIOImage(image, null, null), param);
+            }
+            Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            writer.dispose();
+            Files.deleteIfExists(tempFile);
+        }
+    }
+}
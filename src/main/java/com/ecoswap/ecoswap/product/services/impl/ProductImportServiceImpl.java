@@ -0,0 +1,303 @@
+package com.ecoswap.ecoswap.product.services.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.ecoswap.ecoswap.configuration.CacheConfig;
+import com.ecoswap.ecoswap.counter.services.CounterService;
+import com.ecoswap.ecoswap.product.exceptions.FileFormatException;
+import com.ecoswap.ecoswap.product.models.dto.ProductDTO;
+import com.ecoswap.ecoswap.product.models.dto.ProductImportErrorDTO;
+import com.ecoswap.ecoswap.product.models.dto.ProductImportReportDTO;
+import com.ecoswap.ecoswap.product.services.CatalogVersionService;
+import com.ecoswap.ecoswap.product.services.ProductImportService;
+import com.ecoswap.ecoswap.user.models.entities.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+
+    private static final String INSERT_PRODUCT = "INSERT INTO product (title, description, category, condition_product, "
+            + "image_product, product_status, release_date, user_id, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final Set<String> REQUIRED_COLUMNS = Set.of("title", "description", "category", "conditionproduct");
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CounterService counterService;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Value("${product.import.chunk-size:500}")
+    private int chunkSize;
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfig.PRODUCT_CATALOG, CacheConfig.PRODUCT_CATEGORY,
+            CacheConfig.RECENT_PRODUCTS}, allEntries = true)
+    public ProductImportReportDTO importProducts(InputStream body, String contentType) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        User usuarioAutenticado = (User) auth.getPrincipal();
+
+        ImportRun run = new ImportRun(usuarioAutenticado.getId());
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            if (isNdjson(contentType)) {
+                readNdjson(reader, run);
+            } else if (isCsv(contentType)) {
+                readCsv(reader, run);
+            } else {
+                throw new FileFormatException("Formato no soportado, use text/csv o application/x-ndjson");
+            }
+            run.flush();
+        } catch (FileFormatException e) {
+            if (run.totalRows == 0) {
+                throw e;
+            }
+            run.flush();
+            run.reject(run.totalRows + 1, e.getMessage());
+        } catch (IOException e) {
+            // Los bloques ya confirmados se conservan; se informa hasta dónde se llegó
+            run.flush();
+            run.reject(run.totalRows + 1, "Error al leer el archivo: " + e.getMessage());
+        } finally {
+            if (run.importedRows > 0) {
+                counterService.recordProductStatusChange(null, "activo", run.importedRows);
+                catalogVersionService.bumpAll();
+            }
+        }
+
+        return new ProductImportReportDTO(run.totalRows, run.importedRows, run.failedRows, run.errors);
+    }
+
+    private void readNdjson(BufferedReader reader, ImportRun run) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            long row = ++run.totalRows;
+            try {
+                run.accept(row, objectMapper.readValue(line, ProductDTO.class));
+            } catch (JsonProcessingException e) {
+                run.reject(row, "JSON inválido: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private void readCsv(BufferedReader reader, ImportRun run) throws IOException {
+        List<String> header = readCsvRecord(reader);
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(normalizeColumn(header.get(i)), i);
+        }
+        if (!columns.keySet().containsAll(REQUIRED_COLUMNS)) {
+            throw new FileFormatException("La cabecera CSV debe incluir las columnas title, description, category y conditionProduct");
+        }
+
+        List<String> record;
+        while ((record = readCsvRecord(reader)) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            long row = ++run.totalRows;
+            ProductDTO productDTO = new ProductDTO();
+            productDTO.setTitle(column(record, columns, "title"));
+            productDTO.setDescription(column(record, columns, "description"));
+            productDTO.setCategory(column(record, columns, "category"));
+            productDTO.setConditionProduct(column(record, columns, "conditionproduct"));
+            productDTO.setImageProduct(column(record, columns, "imageproduct"));
+            run.accept(row, productDTO);
+        }
+    }
+
+    /**
+     * Lee un registro CSV (RFC 4180): admite campos entre comillas con comas,
+     * comillas dobles escapadas y saltos de línea dentro del campo.
+     */
+    private List<String> readCsvRecord(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (!quoted) {
+                break;
+            }
+            line = reader.readLine();
+            if (line == null) {
+                throw new FileFormatException("CSV inválido: comillas sin cerrar al final del archivo");
+            }
+            field.append('\n');
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private String column(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private String normalizeColumn(String name) {
+        return name.trim().replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    private boolean isNdjson(String contentType) {
+        return contentType != null && (contentType.startsWith("application/x-ndjson")
+                || contentType.startsWith("application/ndjson"));
+    }
+
+    private boolean isCsv(String contentType) {
+        return contentType != null && contentType.startsWith("text/csv");
+    }
+
+    /**
+     * Estado de una importación: acumula filas válidas y las inserta en bloques,
+     * cada uno en su propia transacción.
+     */
+    private class ImportRun {
+        private final Long userId;
+        private final LocalDate releaseDate = LocalDate.now();
+        private final List<ProductDTO> pending = new ArrayList<>();
+        private final List<Long> pendingRows = new ArrayList<>();
+        private final List<ProductImportErrorDTO> errors = new ArrayList<>();
+        private long totalRows;
+        private long importedRows;
+        private long failedRows;
+
+        ImportRun(Long userId) {
+            this.userId = userId;
+        }
+
+        void accept(long row, ProductDTO productDTO) {
+            Set<ConstraintViolation<ProductDTO>> violations = validator.validate(productDTO);
+            if (!violations.isEmpty()) {
+                reject(row, violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                return;
+            }
+            pending.add(productDTO);
+            pendingRows.add(row);
+            if (pending.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void reject(long row, String message) {
+            failedRows++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ProductImportErrorDTO(row, message));
+            }
+        }
+
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_PRODUCT, pending,
+                        pending.size(), (ps, productDTO) -> {
+                            ps.setString(1, productDTO.getTitle());
+                            ps.setString(2, productDTO.getDescription());
+                            ps.setString(3, productDTO.getCategory());
+                            ps.setString(4, productDTO.getConditionProduct());
+                            ps.setString(5, productDTO.getImageProduct());
+                            ps.setString(6, "activo");
+                            ps.setDate(7, Date.valueOf(releaseDate));
+                            ps.setLong(8, userId);
+                            ps.setTimestamp(9, Timestamp.valueOf(LocalDateTime.now()));
+                        }));
+                importedRows += pending.size();
+            } catch (DataAccessException e) {
+                // El bloque completo se revirtió: se reintenta fila a fila para aislar las que fallan
+                insertOneByOne();
+            }
+            pending.clear();
+            pendingRows.clear();
+        }
+
+        private void insertOneByOne() {
+            for (int i = 0; i < pending.size(); i++) {
+                ProductDTO productDTO = pending.get(i);
+                try {
+                    jdbcTemplate.update(INSERT_PRODUCT, productDTO.getTitle(), productDTO.getDescription(),
+                            productDTO.getCategory(), productDTO.getConditionProduct(), productDTO.getImageProduct(),
+                            "activo", Date.valueOf(releaseDate), userId, Timestamp.valueOf(LocalDateTime.now()));
+                    importedRows++;
+                } catch (DataAccessException e) {
+                    reject(pendingRows.get(i), "No se pudo guardar el producto: " + e.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+}
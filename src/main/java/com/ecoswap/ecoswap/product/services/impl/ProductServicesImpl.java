@@ -1,26 +1,32 @@
 package com.ecoswap.ecoswap.product.services.impl;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.LocalDate;
-import java.util.Arrays;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
 import java.util.stream.Collectors;
 
-import com.ecoswap.ecoswap.exchange.models.entities.Exchange;
-import com.ecoswap.ecoswap.exchange.repositories.ExchangeRepository;
-import com.ecoswap.ecoswap.product.exceptions.FileFormatException;
-import com.ecoswap.ecoswap.product.exceptions.ProductCreationException;
+import com.ecoswap.ecoswap.configuration.KeysetCursor;
+import com.ecoswap.ecoswap.configuration.CacheConfig;
+import com.ecoswap.ecoswap.counter.services.CounterService;
+import com.ecoswap.ecoswap.exchange.events.ExchangeCompletedEvent;
+import com.ecoswap.ecoswap.product.models.dto.ProductChangesDTO;
 import com.ecoswap.ecoswap.product.models.dto.ProductResponseDTO;
+import com.ecoswap.ecoswap.product.models.dto.ProductViewDTO;
 import com.ecoswap.ecoswap.user.models.entities.User;
 import com.ecoswap.ecoswap.user.repositories.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -30,10 +36,15 @@ import com.ecoswap.ecoswap.product.exceptions.ProductNotFoundException;
 import com.ecoswap.ecoswap.product.models.dto.ProductDTO;
 import com.ecoswap.ecoswap.product.models.entities.Product;
 import com.ecoswap.ecoswap.product.repositories.ProductRepository;
+import com.ecoswap.ecoswap.product.services.CatalogVersionService;
+import com.ecoswap.ecoswap.product.services.ImageStorageService;
+import com.ecoswap.ecoswap.product.services.ImageVariantService;
 import com.ecoswap.ecoswap.product.services.ProductService;
 import com.ecoswap.ecoswap.user.models.dto.UserDTO;
 import org.springframework.web.multipart.MultipartFile;
 
+import jakarta.transaction.Transactional;
+
 @Service
 public class ProductServicesImpl implements ProductService{
 
@@ -41,99 +52,133 @@ public class ProductServicesImpl implements ProductService{
     public ProductRepository productRepository;
 
     @Autowired
-    private ExchangeRepository exchangeRepository;
+    private UserRepository userRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private CacheManager cacheManager;
 
-    @Value("${image.storage.path}")
-    private String storageFolderPath;
+    @Autowired
+    private CounterService counterService;
 
-    @Override
-    public ProductResponseDTO findAll(Integer page, Integer size) {
-        List<Product> productList;
+    @Autowired
+    private ImageStorageService imageStorageService;
 
-        if (page == null || size == null || size <= 0) {
-            productList = productRepository.findByProductStatus("activo");
-        } else {
-            Pageable pageable = PageRequest.of(page, size);
-            Page<Product> productPage = productRepository.findByProductStatus("activo", pageable);
-            productList = productPage.getContent();
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
 
-            List<ProductDTO> products = productList.stream()
-                    .map(this::mapToProductDTO)
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 50;
+    private static final int MAX_OFFSET_PAGE = 100;
+    private static final Duration RECONCILIATION_OVERLAP = Duration.ofMinutes(1);
+    private static final int DEFAULT_CHANGES_LIMIT = 100;
+    private static final int MAX_CHANGES_LIMIT = 500;
+
+    // Las filas más recientes que este margen no se sirven todavía: una transacción que aún no
+    // confirmó podría escribir un updatedAt anterior al cursor ya entregado al cliente
+    @Value("${product.changes.settle-ms:2000}")
+    private long changesSettleMs;
+
+    // Marca de agua de la reconciliación: null hasta la primera pasada completa
+    private volatile LocalDateTime reconciledUntil;
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.PRODUCT_CATALOG,
+            key = "{@catalogVersionServiceImpl.getCatalogEtag(), #page, #size, #cursor}")
+    public ProductResponseDTO findAll(Integer page, Integer size, String cursor) {
+        int pageSize = (size == null || size <= 0) ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+
+        if (page != null && cursor == null) {
+            if (page < 0 || page >= MAX_OFFSET_PAGE) {
+                throw new IllegalArgumentException("Página fuera de rango, use el parámetro cursor para paginar");
+            }
+            Pageable pageable = PageRequest.of(page, pageSize);
+            Page<ProductViewDTO> productPage = productRepository.findViewsByProductStatus("activo", pageable);
+
+            List<ProductDTO> products = productPage.getContent().stream()
+                    .map(ProductViewDTO::toProductDTO)
                     .collect(Collectors.toList());
 
             return new ProductResponseDTO(products, productPage.getTotalPages());
         }
 
-        List<ProductDTO> products = productList.stream()
-                .map(this::mapToProductDTO)
-                .collect(Collectors.toList());
+        // Se pide un elemento extra para saber si existe una página siguiente sin hacer COUNT
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<ProductViewDTO> productList;
+        if (cursor == null || cursor.isBlank()) {
+            productList = productRepository.findViewsByProductStatusOrderByReleaseDate("activo", limit);
+        } else {
+            KeysetCursor<LocalDate> position = KeysetCursor.decode(cursor, LocalDate::parse);
+            productList = productRepository.findViewsByProductStatusAfterCursor("activo",
+                    position.value(), position.id(), limit);
+        }
 
-        return new ProductResponseDTO(products, 1);
+        String nextCursor = null;
+        if (productList.size() > pageSize) {
+            productList = productList.subList(0, pageSize);
+            nextCursor = KeysetCursor.encode(productList.get(pageSize - 1).getReleaseDate(),
+                    productList.get(pageSize - 1).getId());
+        }
 
+        List<ProductDTO> products = productList.stream()
+                .map(ProductViewDTO::toProductDTO)
+                .collect(Collectors.toList());
 
+        return new ProductResponseDTO(products, null, nextCursor);
     }
 
     @Override
+    @CacheEvict(cacheNames = {CacheConfig.PRODUCT_CATALOG, CacheConfig.PRODUCT_CATEGORY,
+            CacheConfig.RECENT_PRODUCTS}, allEntries = true)
     public ProductDTO createProduct(ProductDTO productDTO, MultipartFile image) {
-        try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            User usuarioAutenticado = (User) auth.getPrincipal();
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        User usuarioAutenticado = (User) auth.getPrincipal();
 
 
-            if (image == null || image.isEmpty()) {
-                throw new IllegalArgumentException("Debe proporcionar una imagen para crear el producto");
-            }
+        if (image == null || image.isEmpty()) {
+            throw new IllegalArgumentException("Debe proporcionar una imagen para crear el producto");
+        }
 
-            String imageName = image.getOriginalFilename();
-            // Obtener la extensión del archivo
-            String fileExtension = imageName.substring(imageName.lastIndexOf(".") + 1).toLowerCase();
+        // El formato se valida por la firma del archivo y el nombre se deriva del contenido
+        String storedFileName = imageStorageService.store(image);
+        String serverImagePath = imageStorageService.getPublicUrl(storedFileName);
 
-            if (!Arrays.asList("jpg", "jpeg", "png").contains(fileExtension)) {
-                throw new FileFormatException("Extensión de imagen no permitida. Por favor suba una imagen con extensión jpg, png o jpeg");
-            }
+        //Pasar el DTO a entidad para guardarlo
+        Product product = new Product();
+        product.setId(productDTO.getId());
+        product.setTitle(productDTO.getTitle());
+        product.setDescription(productDTO.getDescription());
+        product.setCategory(productDTO.getCategory());
+        product.setImageProduct(serverImagePath);
+        product.setConditionProduct(productDTO.getConditionProduct());
+        product.setUser(usuarioAutenticado);
+        product.setProductStatus("activo");
+        product.setReleaseDate(LocalDate.now());
 
-            String uniqueFileName = UUID.randomUUID().toString() + "_" + imageName;
-            // Ruta donde se guardarán las imágenes en el servidor
-            String serverImagePath = "https://ecoswap-backend.onrender.com/images/" + uniqueFileName;
-
-            // Guardar la imagen en el servidor 
-            Files.write(Paths.get(storageFolderPath, uniqueFileName), image.getBytes());
-
-            //Pasar el DTO a entidad para guardarlo
-            Product product = new Product();
-            product.setId(productDTO.getId());
-            product.setTitle(productDTO.getTitle());
-            product.setDescription(productDTO.getDescription());
-            product.setCategory(productDTO.getCategory());
-            product.setImageProduct(serverImagePath);
-            product.setConditionProduct(productDTO.getConditionProduct());
-            product.setUser(usuarioAutenticado);
-            product.setProductStatus("activo");
-            product.setReleaseDate(LocalDate.now());
-
-            Product savedProduct = productRepository.save(product);
-            ProductDTO productDTOResponse = new ProductDTO();
-            productDTOResponse.setId(savedProduct.getId());
-            productDTOResponse.setDescription(savedProduct.getDescription());
-            productDTOResponse.setCategory(savedProduct.getCategory());
-            productDTOResponse.setConditionProduct(savedProduct.getConditionProduct());
-            productDTOResponse.setTitle(savedProduct.getTitle());
-            productDTOResponse.setImageProduct(savedProduct.getImageProduct());
-//            productDTOResponse.setUser(savedProduct.getUser().getEmail());
-            productDTOResponse.setReleaseDate(savedProduct.getReleaseDate());
-
-
-            return productDTOResponse;
-
-        } catch (IOException e) { 
-            throw new ProductCreationException("Error al crear el producto: " + e.getMessage());
-        }
+        Product savedProduct = productRepository.save(product);
+        counterService.recordProductStatusChange(null, "activo", 1);
+        catalogVersionService.bumpCategory(savedProduct.getCategory());
+        imageVariantService.generateVariantsAsync(storedFileName);
+
+        ProductDTO productDTOResponse = new ProductDTO();
+        productDTOResponse.setId(savedProduct.getId());
+        productDTOResponse.setDescription(savedProduct.getDescription());
+        productDTOResponse.setCategory(savedProduct.getCategory());
+        productDTOResponse.setConditionProduct(savedProduct.getConditionProduct());
+        productDTOResponse.setTitle(savedProduct.getTitle());
+        productDTOResponse.setImageProduct(savedProduct.getImageProduct());
+//        productDTOResponse.setUser(savedProduct.getUser().getEmail());
+        productDTOResponse.setReleaseDate(savedProduct.getReleaseDate());
+
+
+        return productDTOResponse;
     }
 
     @Override
+    @CacheEvict(cacheNames = {CacheConfig.PRODUCT_CATALOG, CacheConfig.PRODUCT_CATEGORY,
+            CacheConfig.RECENT_PRODUCTS}, allEntries = true)
     public ProductDTO updateProductById(Long id, ProductDTO productDTO) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         User usuarioAutenticado = (User) auth.getPrincipal();
@@ -143,6 +188,7 @@ public class ProductServicesImpl implements ProductService{
             throw new RuntimeException("No tienes permiso para esta acción");
         }
 
+        String previousCategory = product.getCategory();
         product.setTitle(productDTO.getTitle());
         product.setDescription(productDTO.getDescription());
         product.setCategory(productDTO.getCategory());
@@ -150,6 +196,8 @@ public class ProductServicesImpl implements ProductService{
         product.setConditionProduct(productDTO.getConditionProduct());
 
         Product savedProduct = productRepository.save(product);
+        catalogVersionService.bumpCategory(previousCategory);
+        catalogVersionService.bumpCategory(savedProduct.getCategory());
 
         ProductDTO productDTOResponse = new ProductDTO();
         productDTOResponse.setId(savedProduct.getId());
@@ -164,6 +212,8 @@ public class ProductServicesImpl implements ProductService{
     }
 
     @Override
+    @CacheEvict(cacheNames = {CacheConfig.PRODUCT_CATALOG, CacheConfig.PRODUCT_CATEGORY,
+            CacheConfig.RECENT_PRODUCTS}, allEntries = true)
     public void deleteProduct(Long id) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         User usuarioAutenticado = (User) auth.getPrincipal();
@@ -173,9 +223,12 @@ public class ProductServicesImpl implements ProductService{
             throw new RuntimeException("No tienes permiso para esta acción");
         }
 
+        String previousStatus = product.getProductStatus();
         product.setProductStatus("inactivo");
 
         productRepository.save(product);
+        counterService.recordProductStatusChange(previousStatus, "inactivo", 1);
+        catalogVersionService.bumpCategory(product.getCategory());
 
     }
 
@@ -199,23 +252,14 @@ public class ProductServicesImpl implements ProductService{
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.PRODUCT_CATEGORY,
+            key = "{@catalogVersionServiceImpl.getCategoryEtag(#category), #category, #page, #size}")
     public ProductResponseDTO getProductsByCategory(String category, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Product> products = productRepository.findByCategory(category, pageable);
+        Page<ProductViewDTO> products = productRepository.findByCategoryAndProductStatus(category, "activo", pageable);
 
         List<ProductDTO> productDTOs = products.stream()
-                .filter(product -> "activo".equals(product.getProductStatus()))
-                .map(product -> {
-                    ProductDTO productDTO = new ProductDTO();
-                    productDTO.setId(product.getId());
-                    productDTO.setTitle(product.getTitle());
-                    productDTO.setDescription(product.getDescription());
-                    productDTO.setCategory(product.getCategory());
-                    productDTO.setConditionProduct(product.getConditionProduct());
-                    productDTO.setImageProduct(product.getImageProduct());
-                    productDTO.setReleaseDate(product.getReleaseDate());
-                    return productDTO;
-                })
+                .map(ProductViewDTO::toProductDTO)
                 .collect(Collectors.toList());
 
         return new ProductResponseDTO(productDTOs, products.getTotalPages());
@@ -227,103 +271,123 @@ public class ProductServicesImpl implements ProductService{
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         User usuarioAutenticado = (User) auth.getPrincipal();
 
-        List<Product> products = productRepository.findByUser(usuarioAutenticado);
-
-        List<ProductDTO> productDTOs = products.stream()
-                .filter(product -> "activo".equals(product.getProductStatus()))
-                .map(product -> {
-                    ProductDTO productDTO = new ProductDTO();
-                    productDTO.setId(product.getId());
-                    productDTO.setTitle(product.getTitle());
-                    productDTO.setDescription(product.getDescription());
-                    productDTO.setCategory(product.getCategory());
-                    productDTO.setConditionProduct(product.getConditionProduct());
-                    productDTO.setImageProduct(product.getImageProduct());
-                    productDTO.setReleaseDate(product.getReleaseDate());
-                    return productDTO;
-                })
+        return productRepository.findViewsByUserIdAndProductStatus(usuarioAutenticado.getId(), "activo").stream()
+                .map(ProductViewDTO::toProductDTO)
                 .collect(Collectors.toList());
 
-        return productDTOs;
-
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.RECENT_PRODUCTS, key = "@catalogVersionServiceImpl.getCatalogEtag()")
     public List<ProductDTO> getRecentlyProducts() {
-        List<Product> recentlyProducts = productRepository.findTop5ByProductStatusOrderByReleaseDateDesc("activo");
-
-        return recentlyProducts.stream()
-                .map(product -> {
-                    ProductDTO productDTO = new ProductDTO();
-                    productDTO.setId(product.getId());
-                    productDTO.setTitle(product.getTitle());
-                    productDTO.setDescription(product.getDescription());
-                    productDTO.setCategory(product.getCategory());
-                    productDTO.setConditionProduct(product.getConditionProduct());
-                    productDTO.setImageProduct(product.getImageProduct());
-                    productDTO.setReleaseDate(product.getReleaseDate());
-                    return productDTO;
-                })
+        return productRepository.findViewsByProductStatusOrderByReleaseDate("activo", PageRequest.of(0, 5)).stream()
+                .map(ProductViewDTO::toProductDTO)
                 .toList();
 
     }
 
     @Override
     public Long countProduct() {
-        return productRepository.count();
+        return counterService.getTotalProducts();
+    }
+
+    @Override
+    public Map<String, Long> countProductsByStatus() {
+        return counterService.getProductsByStatus();
     }
 
     @Override
     public List<ProductDTO> getActiveProductsByUserId(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-        
-        List<Product> activeProducts = productRepository.findByUserAndProductStatus(user, "activo");
-        
-        return activeProducts.stream()
-                .map(this::mapToProductDTO)
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("Usuario no encontrado");
+        }
+
+        return productRepository.findViewsByUserIdAndProductStatus(userId, "activo").stream()
+                .map(ProductViewDTO::toProductDTO)
                 .collect(Collectors.toList());
     }
 
     @Override
-    @Scheduled(fixedRate = 2000)
+    @Transactional
+    @EventListener
+    @CacheEvict(cacheNames = {CacheConfig.PRODUCT_CATALOG, CacheConfig.PRODUCT_CATEGORY,
+            CacheConfig.RECENT_PRODUCTS}, allEntries = true)
+    public void deactivateExchangedProducts(ExchangeCompletedEvent event) {
+        // Se ejecuta en la misma transacción que confirma el intercambio: un único UPDATE para ambos productos
+        int deactivated = productRepository.updateProductStatus(
+                List.of(event.getProductFromId(), event.getProductToId()), "inactivo", LocalDateTime.now());
+        counterService.recordProductStatusChange("activo", "inactivo", deactivated);
+        if (deactivated > 0) {
+            catalogVersionService.bumpAll();
+        }
+    }
+
+    /**
+     * Reconciliación de respaldo para intercambios cuya desactivación no llegó a aplicarse.
+     * Solo revisa los intercambios completados desde la última pasada (con un margen de solape).
+     */
+    @Override
+    @Transactional
+    @Scheduled(fixedDelayString = "${product.reconciliation.interval-ms:300000}")
     public void markProductsAsInactiveFromCompletedExchanges() {
-         List<Exchange> completedExchanges = exchangeRepository.findByStatus("completado");
+        LocalDateTime runStartedAt = LocalDateTime.now();
+
+        int deactivated = reconciledUntil == null
+                ? productRepository.deactivateProductsFromCompletedExchanges(runStartedAt)
+                : productRepository.deactivateProductsFromExchangesCompletedSince(reconciledUntil, runStartedAt);
+
+        reconciledUntil = runStartedAt.minus(RECONCILIATION_OVERLAP);
 
-         for (Exchange exchange : completedExchanges) {
-             Product productTo = exchange.getProductTo();
-             Product productFrom = exchange.getProductFrom();
+        if (deactivated > 0) {
+            counterService.recordProductStatusChange("activo", "inactivo", deactivated);
+            catalogVersionService.bumpAll();
+            evictCatalogCaches();
+        }
+    }
+
+    @Override
+    public ProductChangesDTO getProductChanges(String cursor, Integer limit) {
+        int pageSize = (limit == null || limit <= 0) ? DEFAULT_CHANGES_LIMIT : Math.min(limit, MAX_CHANGES_LIMIT);
+        LocalDateTime until = LocalDateTime.now().minus(Duration.ofMillis(changesSettleMs));
+
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        List<ProductViewDTO> changes;
+        if (cursor == null || cursor.isBlank()) {
+            changes = productRepository.findChanges(until, pageable);
+        } else {
+            KeysetCursor<LocalDateTime> position = KeysetCursor.decode(cursor, LocalDateTime::parse);
+            changes = productRepository.findChangesAfterCursor(position.value(), position.id(), until, pageable);
+        }
 
-             if (productTo != null) {
-                 productTo.setProductStatus("inactivo");
-                 productRepository.save(productTo);
-             }
+        boolean hasMore = changes.size() > pageSize;
+        if (hasMore) {
+            changes = changes.subList(0, pageSize);
+        }
 
-             if (productFrom != null) {
-                 productFrom.setProductStatus("inactivo");
-                 productRepository.save(productFrom);
-             }
-         }
+        List<ProductDTO> upserts = new ArrayList<>();
+        List<Long> removed = new ArrayList<>();
+        for (ProductViewDTO change : changes) {
+            if ("activo".equals(change.getProductStatus())) {
+                upserts.add(change.toProductDTO());
+            } else {
+                removed.add(change.getId());
+            }
+        }
 
+        // Sin cambios nuevos el cliente conserva su posición
+        String nextCursor = changes.isEmpty() ? cursor : KeysetCursor.encode(changes.get(changes.size() - 1).getUpdatedAt(),
+                changes.get(changes.size() - 1).getId());
+        return new ProductChangesDTO(upserts, removed, nextCursor, hasMore);
     }
 
-    private ProductDTO mapToProductDTO(Product product) {
-        return new ProductDTO(
-            product.getId(),
-            product.getTitle(),
-            product.getDescription(),
-            product.getCategory(),
-            product.getConditionProduct(),
-            product.getImageProduct(),
-            product.getReleaseDate(),
-            new UserDTO(
-                product.getUser().getId(),
-                product.getUser().getName(),
-                product.getUser().getEmail(),
-                product.getUser().getAddress(),
-                product.getUser().getCellphoneNumber()
-            )
-        );
+    private void evictCatalogCaches() {
+        for (String cacheName : List.of(CacheConfig.PRODUCT_CATALOG, CacheConfig.PRODUCT_CATEGORY,
+                CacheConfig.RECENT_PRODUCTS)) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
     }
 
     @Override
@@ -1,5 +1,6 @@
 package com.ecoswap.ecoswap.user.services.impl;
 
+import com.ecoswap.ecoswap.counter.services.CounterService;
 import com.ecoswap.ecoswap.user.models.dto.AuthenticationResponseDTO;
 import com.ecoswap.ecoswap.user.models.dto.LoginDTO;
 import com.ecoswap.ecoswap.user.models.dto.RegisterDTO;
@@ -34,6 +35,9 @@ public class AuthenticationServiceImpl implements AuthenticationService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private CounterService counterService;
+
     @Override
     public AuthenticationResponseDTO login(LoginDTO login) {
         UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(login.getUsername(), login.getPassword());
@@ -66,6 +70,7 @@ public class AuthenticationServiceImpl implements AuthenticationService {
         user.setRole(Role.valueOf("USER"));
 
         iUserRepository.save(user);
+        counterService.recordUserCreated();
 
         UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(register.getEmail(), register.getPassword());
 
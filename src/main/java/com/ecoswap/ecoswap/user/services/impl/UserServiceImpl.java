@@ -11,6 +11,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
+import com.ecoswap.ecoswap.counter.services.CounterService;
 import com.ecoswap.ecoswap.product.models.dto.ProductDTO;
 import com.ecoswap.ecoswap.user.exceptions.UserNotFoundException;
 import com.ecoswap.ecoswap.user.models.dto.UserDTO;
@@ -24,6 +25,9 @@ public class UserServiceImpl implements UserService{
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CounterService counterService;
+
     @Override
     public List<UserDTO> findAll() {
         return userRepository.findAll().stream()
@@ -48,6 +52,7 @@ public class UserServiceImpl implements UserService{
         user.setCellphoneNumber(userDTO.getCellphoneNumber());
         user.setRole(Role.valueOf("USER"));
         userRepository.save(user);
+        counterService.recordUserCreated();
     }
 
     @Override
@@ -78,6 +83,7 @@ public class UserServiceImpl implements UserService{
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new UserNotFoundException("Usuario no encontrado"));
         userRepository.delete(user);
+        counterService.recordUserDeleted();
     }
 
     @Override
@@ -98,7 +104,7 @@ public class UserServiceImpl implements UserService{
 
     @Override
     public long countUsers() {
-        return userRepository.count();
+        return counterService.getTotalUsers();
     }
 
 }
@@ -0,0 +1,79 @@
+package com.ecoswap.ecoswap.configuration.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.ecoswap.ecoswap.configuration.RateLimitProperties;
+
+class RateLimitFilterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private RateLimitFilter.TokenBucket bucket(long capacity, long refillPerMinute) {
+        RateLimitProperties.Route route = new RateLimitProperties.Route();
+        route.setCapacity(capacity);
+        route.setRefillPerMinute(refillPerMinute);
+        return new RateLimitFilter.TokenBucket(route);
+    }
+
+    @Test
+    void allowsBurstUpToCapacityThenRejects() {
+        // 5 de ráfaga, 1 token cada 6 segundos
+        RateLimitFilter.TokenBucket bucket = bucket(5, 10);
+        long now = 1_000 * SECOND;
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryConsume(now));
+        }
+        assertEquals(6 * SECOND, bucket.tryConsume(now));
+    }
+
+    @Test
+    void refillsOneTokenPerEmissionInterval() {
+        RateLimitFilter.TokenBucket bucket = bucket(2, 60);
+        long now = 0;
+
+        assertEquals(0, bucket.tryConsume(now));
+        assertEquals(0, bucket.tryConsume(now));
+        assertEquals(SECOND, bucket.tryConsume(now));
+        // Medio segundo después aún falta la otra mitad
+        assertEquals(SECOND / 2, bucket.tryConsume(now + SECOND / 2));
+        // Al cumplirse el intervalo vuelve a haber exactamente un token
+        assertEquals(0, bucket.tryConsume(now + SECOND));
+        assertTrue(bucket.tryConsume(now + SECOND) > 0);
+    }
+
+    @Test
+    void rejectedRequestsDoNotConsumeTokens() {
+        RateLimitFilter.TokenBucket bucket = bucket(1, 60);
+
+        assertEquals(0, bucket.tryConsume(0));
+        for (int i = 0; i < 10; i++) {
+            assertTrue(bucket.tryConsume(0) > 0);
+        }
+        assertEquals(0, bucket.tryConsume(SECOND));
+    }
+
+    @Test
+    void idleBucketDoesNotAccumulateMoreThanCapacity() {
+        RateLimitFilter.TokenBucket bucket = bucket(3, 60);
+
+        long later = 3_600 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryConsume(later));
+        }
+        assertTrue(bucket.tryConsume(later) > 0);
+    }
+
+    @Test
+    void retryAfterRoundsUpToWholeSeconds() {
+        assertEquals(1, RateLimitFilter.retryAfterSeconds(1));
+        assertEquals(1, RateLimitFilter.retryAfterSeconds(SECOND));
+        assertEquals(2, RateLimitFilter.retryAfterSeconds(SECOND + 1));
+        assertEquals(6, RateLimitFilter.retryAfterSeconds(6 * SECOND));
+    }
+}
@@ -0,0 +1,54 @@
+package com.ecoswap.ecoswap.exchange.models;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.EnumSet;
+
+import org.junit.jupiter.api.Test;
+
+class ExchangeStatusTest {
+
+    @Test
+    void pendingCanBeAcceptedRejectedOrCanceled() {
+        assertEquals(EnumSet.of(ExchangeStatus.ACEPTADA, ExchangeStatus.RECHAZADA, ExchangeStatus.CANCELADO),
+                ExchangeStatus.PENDIENTE.getNextStatuses());
+        assertFalse(ExchangeStatus.PENDIENTE.canTransitionTo(ExchangeStatus.COMPLETADO));
+    }
+
+    @Test
+    void acceptedCanOnlyBeCompletedOrCanceled() {
+        assertEquals(EnumSet.of(ExchangeStatus.COMPLETADO, ExchangeStatus.CANCELADO),
+                ExchangeStatus.ACEPTADA.getNextStatuses());
+        assertFalse(ExchangeStatus.ACEPTADA.canTransitionTo(ExchangeStatus.RECHAZADA));
+        assertFalse(ExchangeStatus.ACEPTADA.canTransitionTo(ExchangeStatus.PENDIENTE));
+    }
+
+    @Test
+    void finalStatusesHaveNoTransitions() {
+        for (ExchangeStatus status : EnumSet.of(ExchangeStatus.COMPLETADO, ExchangeStatus.CANCELADO,
+                ExchangeStatus.RECHAZADA)) {
+            assertTrue(status.getNextStatuses().isEmpty(), status.getValue());
+            for (ExchangeStatus next : ExchangeStatus.values()) {
+                assertFalse(status.canTransitionTo(next), status.getValue() + " -> " + next.getValue());
+            }
+        }
+    }
+
+    @Test
+    void noStatusTransitionsToItself() {
+        for (ExchangeStatus status : ExchangeStatus.values()) {
+            assertFalse(status.canTransitionTo(status), status.getValue());
+        }
+    }
+
+    @Test
+    void fromValueMapsStoredStrings() {
+        for (ExchangeStatus status : ExchangeStatus.values()) {
+            assertEquals(status, ExchangeStatus.fromValue(status.getValue()));
+        }
+        assertThrows(IllegalArgumentException.class, () -> ExchangeStatus.fromValue("desconocido"));
+    }
+}
@@ -0,0 +1,72 @@
+package com.ecoswap.ecoswap.messaging.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.ecoswap.ecoswap.messaging.models.dto.ChatMessageDtoResponse;
+
+class ConversationServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 10, 0);
+
+    private ChatMessageDtoResponse message(Long id, long sender, long receiver, long exchange) {
+        return new ChatMessageDtoResponse(id, sender, receiver, "mensaje " + id, NOW.plusSeconds(id == null ? 0 : id),
+                exchange);
+    }
+
+    @Test
+    void bothDirectionsShareOneConversationKeyedByOrderedPair() {
+        List<ConversationService.ConversationDelta> deltas = new ArrayList<>(ConversationService.aggregate(List.of(
+                message(1L, 7, 3, 10),
+                message(2L, 3, 7, 10),
+                message(3L, 7, 3, 10))));
+
+        assertEquals(1, deltas.size());
+        ConversationService.ConversationDelta delta = deltas.get(0);
+        assertEquals(3, delta.getUserLowId());
+        assertEquals(7, delta.getUserHighId());
+        // El usuario 3 recibió dos mensajes y el 7 uno
+        assertEquals(2, delta.getUnreadLow());
+        assertEquals(1, delta.getUnreadHigh());
+        assertEquals(3L, delta.getLast().getId());
+    }
+
+    @Test
+    void sameUsersInDifferentExchangesAreSeparateConversations() {
+        List<ConversationService.ConversationDelta> deltas = new ArrayList<>(ConversationService.aggregate(List.of(
+                message(1L, 1, 2, 10),
+                message(2L, 1, 2, 11))));
+
+        assertEquals(2, deltas.size());
+        assertEquals(10L, deltas.get(0).getExchangeId());
+        assertEquals(11L, deltas.get(1).getExchangeId());
+        deltas.forEach(delta -> assertEquals(1, delta.getUnreadHigh()));
+    }
+
+    @Test
+    void lastMessageIsTheHighestIdRegardlessOfOrder() {
+        ConversationService.ConversationDelta delta = ConversationService.aggregate(List.of(
+                message(5L, 1, 2, 10),
+                message(4L, 2, 1, 10))).iterator().next();
+
+        assertEquals(5L, delta.getLast().getId());
+        assertEquals(1, delta.getUnreadLow());
+        assertEquals(1, delta.getUnreadHigh());
+    }
+
+    @Test
+    void unsavedAndSelfMessagesAddNoUnread() {
+        assertTrue(ConversationService.aggregate(List.of(message(null, 1, 2, 10))).isEmpty());
+
+        ConversationService.ConversationDelta self = ConversationService.aggregate(List.of(message(1L, 4, 4, 10)))
+                .iterator().next();
+        assertEquals(0, self.getUnreadLow());
+        assertEquals(0, self.getUnreadHigh());
+    }
+}